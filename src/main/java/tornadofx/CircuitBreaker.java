@@ -0,0 +1,114 @@
+package tornadofx;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stops Rest calls from reaching a backend that keeps failing. After failureThreshold failures in a
+ * row the circuit opens and calls fail at once with an {@link OpenException}. When openTime has passed
+ * a single trial call is let through: if it succeeds the circuit closes, otherwise it opens again.
+ * <p/>
+ * The state property is updated on the FX thread so it can be bound to the UI.
+ *
+ * @see Rest#setCircuitBreaker(CircuitBreaker)
+ */
+@SuppressWarnings("unused")
+public class CircuitBreaker {
+	public enum State {CLOSED, OPEN, HALF_OPEN}
+
+	@Getter
+	@Setter
+	private int failureThreshold = 5;
+	/**
+	 * Milliseconds to fail fast before a trial call is allowed
+	 */
+	@Getter
+	@Setter
+	private long openTime = 30000;
+
+	private final AtomicReference<State> current = new AtomicReference<>(State.CLOSED);
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicBoolean trialInFlight = new AtomicBoolean();
+	private volatile long openedAt;
+
+	private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(State.CLOSED);
+
+	/**
+	 * @return True if a call may be performed now
+	 */
+	public boolean allowRequest() {
+		State s = current.get();
+
+		if (s == State.CLOSED)
+			return true;
+
+		if (s == State.OPEN) {
+			if (System.currentTimeMillis() - openedAt < openTime)
+				return false;
+
+			transition(State.OPEN, State.HALF_OPEN);
+		}
+
+		return trialInFlight.compareAndSet(false, true);
+	}
+
+	public void onSuccess() {
+		failures.set(0);
+		trialInFlight.set(false);
+
+		State s = current.get();
+		if (s != State.CLOSED)
+			transition(s, State.CLOSED);
+	}
+
+	public void onFailure() {
+		State s = current.get();
+
+		if (s == State.HALF_OPEN || (s == State.CLOSED && failures.incrementAndGet() >= failureThreshold)) {
+			openedAt = System.currentTimeMillis();
+			failures.set(0);
+			transition(s, State.OPEN);
+			trialInFlight.set(false);
+		}
+	}
+
+	/**
+	 * Close the circuit, e.g. when the user explicitly asks to retry
+	 */
+	public void reset() {
+		onSuccess();
+	}
+
+	public State getState() {
+		return current.get();
+	}
+
+	public ReadOnlyObjectProperty<State> stateProperty() {
+		return state.getReadOnlyProperty();
+	}
+
+	private void transition(State from, State to) {
+		if (current.compareAndSet(from, to)) {
+			if (Platform.isFxApplicationThread())
+				state.set(to);
+			else
+				FXQueue.post(() -> state.set(current.get()));
+		}
+	}
+
+	/**
+	 * The error of a call that was not performed because the circuit is open
+	 */
+	public static class OpenException extends RuntimeException {
+		public OpenException(String message) {
+			super(message);
+		}
+	}
+}
@@ -5,12 +5,6 @@ import javafx.scene.Node;
 import javafx.scene.control.Tab;
 import javafx.stage.Stage;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
@@ -81,7 +75,7 @@ public abstract class Component {
 		else
 			task.setOnFailed(event -> EventBus.publishError(this, event.getSource().getException()));
 
-		FX.executor.submit(task);
+		FX.getExecutor().submit(task);
 		return task;
 	}
 
@@ -100,27 +94,19 @@ public abstract class Component {
 	}
 
 	public void setProperty(String key, Boolean value) {
-		Properties properties = getProperties();
-		properties.put(key, value.toString());
-		saveProperties(properties);
+		ComponentProperties.of(this).set(key, value.toString());
 	}
 
 	public void setProperty(String key, Integer value) {
-		Properties properties = getProperties();
-		properties.put(key, value.toString());
-		saveProperties(properties);
+		ComponentProperties.of(this).set(key, value.toString());
 	}
 
 	public void setProperty(String key, Double value) {
-		Properties properties = getProperties();
-		properties.put(key, value.toString());
-		saveProperties(properties);
+		ComponentProperties.of(this).set(key, value.toString());
 	}
 
 	public void setProperty(String key, String value) {
-		Properties properties = getProperties();
-		properties.put(key, value);
-		saveProperties(properties);
+		ComponentProperties.of(this).set(key, value);
 	}
 
 	public boolean getBooleanProperty(String key) {
@@ -138,63 +124,39 @@ public abstract class Component {
 	}
 
 	public String getProperty(String key) {
-		return getProperties().getProperty(key);
+		return ComponentProperties.of(this).get(key, null);
 	}
 
 	public String getProperty(String key, String defaultValue) {
-		return getProperties().getProperty(key, defaultValue);
+		return ComponentProperties.of(this).get(key, defaultValue);
 	}
 
+	/**
+	 * Replace all properties of this component class. Like the other property changes, the file
+	 * is written in the background shortly after, or when the application exits.
+	 *
+	 * @see #flushProperties()
+	 */
 	public void saveProperties(Properties properties) {
-		try (OutputStream output = Files.newOutputStream(getPropertyPath())) {
-			properties.store(output, "");
-		} catch (IOException saveFailed) {
-			fire(new UIError(saveFailed));
-		}
+		ComponentProperties.of(this).setAll(properties);
 	}
 
 	public void removeProperty(String key) {
-		Properties properties = getProperties();
-		properties.remove(key);
-
-		try {
-			if (properties.isEmpty())
-				Files.deleteIfExists(getPropertyPath());
-			else
-				saveProperties(properties);
-
-		} catch (IOException ex) {
-			fire(new UIError(ex));
-		}
+		ComponentProperties.of(this).remove(key);
 	}
 
+	/**
+	 * @return A copy of the properties of this component class. They are read from disk once and then kept in memory.
+	 */
 	public Properties getProperties() {
-		Properties properties = new Properties();
-
-		Path path = getPropertyPath();
-
-		if (Files.exists(path)) {
-			try (InputStream input = Files.newInputStream(path)) {
-				properties.load(input);
-			} catch (IOException ex) {
-				fire(new UIError(ex));
-			}
-		}
-
-		return properties;
+		return ComponentProperties.of(this).getAll();
 	}
 
-	private Path getPropertyPath() {
-        Path conf = Paths.get("conf");
-
-        if (!Files.exists(conf))
-            try {
-                Files.createDirectories(conf);
-            } catch (IOException e) {
-                fire(new UIError(e));
-            }
-
-        return conf.resolve(getClass().getName().concat(".properties"));
+	/**
+	 * Write pending property changes to disk now instead of waiting for the background flush
+	 */
+	public void flushProperties() {
+		ComponentProperties.of(this).flush();
 	}
 
 	public Stage getPrimaryStage() {
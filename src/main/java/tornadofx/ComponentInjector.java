@@ -0,0 +1,34 @@
+package tornadofx;
+
+import java.util.List;
+
+/**
+ * Creates and wires a component without reflection. Implementations are generated at compile time by
+ * {@link tornadofx.processor.InjectionProcessor} and named after the component class with a
+ * <code>$$Injector</code> suffix. When no injector exists for a component, InjectionContext falls back to reflection.
+ *
+ * @param <ComponentType> The component the injector handles
+ */
+public interface ComponentInjector<ComponentType extends Component> {
+	String SUFFIX = "$$Injector";
+
+	/**
+	 * @return A new instance of the component
+	 */
+	ComponentType create();
+
+	/**
+	 * @return The component types declared with @Requires followed by the types of the @Inject fields
+	 */
+	List<Class<? extends Component>> getDependencies();
+
+	/**
+	 * Assign all @Inject fields of the component
+	 */
+	void inject(ComponentType component);
+
+	/**
+	 * Subscribe all @OnEvent methods of the component
+	 */
+	void subscribe(ComponentType component, EventSubscriber subscriber);
+}
@@ -0,0 +1,176 @@
+package tornadofx;
+
+import javafx.scene.Node;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Injection, event and UIContainer metadata for a component class. Read the first time the class is used
+ * and shared by InjectionContext, EventBus and FX. If a ComponentInjector was generated for the class,
+ * injection and event wiring go through it and the class is not scanned for @Inject and @OnEvent members.
+ */
+@SuppressWarnings("unchecked")
+class ComponentMetadata {
+	private static final ConcurrentMap<Class<?>, ComponentMetadata> cache = new ConcurrentHashMap<>();
+
+	final List<Field> injectFields = new ArrayList<>();
+	final List<EventMethod> eventMethods = new ArrayList<>();
+	final List<ContainerField> containerFields = new ArrayList<>();
+	/**
+	 * The @Requires dependencies, or all dependencies declared by the generated injector
+	 */
+	final List<Class<? extends Component>> requires = new ArrayList<>();
+
+	final ComponentInjector injector;
+
+	private final Class<? extends Component> type;
+	private volatile Set<Class> injectables;
+
+	static ComponentMetadata of(Class<?> type) {
+		ComponentMetadata metadata = cache.get(type);
+
+		if (metadata == null) {
+			metadata = new ComponentMetadata((Class<? extends Component>) type);
+			ComponentMetadata existing = cache.putIfAbsent(type, metadata);
+			if (existing != null)
+				metadata = existing;
+		}
+
+		return metadata;
+	}
+
+	private ComponentMetadata(Class<? extends Component> type) {
+		this.type = type;
+		injector = findInjector(type);
+
+		for (Field field : type.getDeclaredFields()) {
+			UIContainer container = field.getAnnotation(UIContainer.class);
+			if (container != null) {
+				field.setAccessible(true);
+				containerFields.add(new ContainerField(field, container));
+			}
+		}
+
+		if (injector != null) {
+			requires.addAll(injector.getDependencies());
+			return;
+		}
+
+		Requires requiresConfig = type.getAnnotation(Requires.class);
+		if (requiresConfig != null)
+			Collections.addAll(requires, requiresConfig.value());
+
+		for (Field field : type.getDeclaredFields()) {
+			if (field.getAnnotation(Inject.class) != null && Component.class.isAssignableFrom(field.getType())) {
+				field.setAccessible(true);
+				injectFields.add(field);
+			}
+		}
+
+		if (EventCapable.class.isAssignableFrom(type)) {
+			for (Method method : type.getDeclaredMethods()) {
+				OnEvent onEvent = method.getAnnotation(OnEvent.class);
+
+				if (onEvent != null && method.getParameterCount() == 1 && isEventType(method.getParameterTypes()[0]))
+					eventMethods.add(new EventMethod(method, onEvent));
+			}
+		}
+	}
+
+	private static ComponentInjector findInjector(Class<?> type) {
+		try {
+			Class<?> injectorType = Class.forName(type.getName() + ComponentInjector.SUFFIX, true, type.getClassLoader());
+			return (ComponentInjector) ReflectionTools.create(injectorType);
+		} catch (ClassNotFoundException notGenerated) {
+			return null;
+		}
+	}
+
+	Component create() {
+		return injector != null ? injector.create() : ReflectionTools.create(type);
+	}
+
+	void inject(Component component) {
+		if (injector != null) {
+			injector.inject(component);
+		} else {
+			for (Field field : injectFields)
+				ReflectionTools.setFieldValue(component, field, InjectionContext.get((Class<Component>) field.getType()));
+		}
+	}
+
+	void subscribe(EventCapable component) {
+		if (injector != null) {
+			injector.subscribe((Component) component, EventBus.subscriber(component));
+		} else {
+			for (EventMethod listener : eventMethods)
+				EventBus.subscribe(component, listener.method, listener.config, listener.invoker);
+		}
+	}
+
+	/**
+	 * Listeners can subscribe to an FXEvent class or to any interface implemented by events
+	 */
+	private static boolean isEventType(Class<?> type) {
+		return FXEvent.class.isAssignableFrom(type) || type.isInterface();
+	}
+
+	/**
+	 * The component type itself followed by all components it transitively depends on via
+	 * {@link Requires} and {@link Inject}, in the order they are discovered.
+	 */
+	Set<Class> getInjectables() {
+		if (injectables == null) {
+			Set<Class> scanned = new LinkedHashSet<>();
+			scanForInjectables(scanned, type);
+			injectables = Collections.unmodifiableSet(scanned);
+		}
+
+		return injectables;
+	}
+
+	private static void scanForInjectables(Set<Class> injectables, Class<? extends Component> type) {
+		if (injectables.contains(type))
+			return;
+
+		injectables.add(type);
+
+		ComponentMetadata metadata = of(type);
+
+		for (Class<? extends Component> dependency : metadata.requires)
+			scanForInjectables(injectables, dependency);
+
+		for (Field field : metadata.injectFields)
+			scanForInjectables(injectables, (Class<? extends Component>) field.getType());
+	}
+
+	static class EventMethod {
+		final Method method;
+		final OnEvent config;
+		final EventInvoker invoker;
+
+		EventMethod(Method method, OnEvent config) {
+			this.method = method;
+			this.config = config;
+			invoker = EventInvoker.compile(method);
+		}
+	}
+
+	static class ContainerField {
+		final Field field;
+		final UIContainer config;
+
+		ContainerField(Field field, UIContainer config) {
+			this.field = field;
+			this.config = config;
+		}
+
+		boolean isNode() {
+			return Node.class.isAssignableFrom(field.getType());
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package tornadofx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The properties of a component class, read from disk once and kept in memory.
+ * <p/>
+ * Changes are written behind: a flush is scheduled on a background thread and postponed until no
+ * changes have been made for the flush delay, so bursts of changes (e.g. column widths while resizing)
+ * end up as a single write. The file is written to a temporary file first and then moved into place,
+ * so a crash never leaves a half written file. A failed write keeps the changes pending and is retried
+ * with a growing delay, a limited number of times. Only the first failure in a row is reported, and the
+ * next change or flush tries again after the retries are used up. Pending changes are flushed when the
+ * JVM shuts down.
+ */
+class ComponentProperties {
+	private static final ConcurrentMap<Class<?>, ComponentProperties> stores = new ConcurrentHashMap<>();
+	private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(FX::newDaemonThread);
+	private static final long defaultFlushDelay = TimeUnit.MILLISECONDS.toNanos(500);
+	private static final long defaultRetryDelay = TimeUnit.SECONDS.toNanos(5);
+	private static final long maxRetryDelay = TimeUnit.MINUTES.toNanos(5);
+	private static final int maxRetries = 5;
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> stores.values().forEach(ComponentProperties::flush)));
+	}
+
+	private final Path path;
+	private final long flushDelay;
+	private final long retryDelay;
+	private final Object writeLock = new Object();
+	private Properties properties;
+	private volatile Component errorReceiver;
+
+	private boolean dirty;
+	private boolean scheduled;
+	private long lastChange;
+	/**
+	 * The number of writes that failed since the last successful one
+	 */
+	private int failures;
+
+	private ComponentProperties(Class<?> type) {
+		this(Paths.get("conf").resolve(type.getName().concat(".properties")), null, defaultFlushDelay, defaultRetryDelay);
+	}
+
+	/**
+	 * @param flushDelay The idle time before changes are written, in nanoseconds
+	 * @param retryDelay The delay before the first retry of a failed write, in nanoseconds
+	 */
+	ComponentProperties(Path path, Component errorReceiver, long flushDelay, long retryDelay) {
+		this.path = path;
+		this.errorReceiver = errorReceiver;
+		this.flushDelay = flushDelay;
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * @param component Receives the errors from reading and writing the file
+	 */
+	static ComponentProperties of(Component component) {
+		ComponentProperties store = stores.computeIfAbsent(component.getClass(), ComponentProperties::new);
+		store.errorReceiver = component;
+		return store;
+	}
+
+	synchronized String get(String key, String defaultValue) {
+		return load().getProperty(key, defaultValue);
+	}
+
+	synchronized void set(String key, String value) {
+		load().setProperty(key, value);
+		changed();
+	}
+
+	synchronized void remove(String key) {
+		if (load().remove(key) != null)
+			changed();
+	}
+
+	/**
+	 * @return A copy of all properties
+	 */
+	synchronized Properties getAll() {
+		Properties copy = new Properties();
+		copy.putAll(load());
+		return copy;
+	}
+
+	synchronized void setAll(Properties all) {
+		Properties properties = load();
+		properties.clear();
+		properties.putAll(all);
+		changed();
+	}
+
+	/**
+	 * Write pending changes now, in the calling thread
+	 */
+	void flush() {
+		writePending();
+	}
+
+	/**
+	 * Write the changes made since the last write. If the write fails the changes stay pending and a retry is
+	 * scheduled, until the retries are used up. The error is published for the first failure in a row only.
+	 */
+	private void writePending() {
+		synchronized (writeLock) {
+			Properties snapshot;
+
+			synchronized (this) {
+				if (!dirty)
+					return;
+
+				dirty = false;
+				snapshot = new Properties();
+				snapshot.putAll(properties);
+			}
+
+			try {
+				write(snapshot);
+
+				synchronized (this) {
+					failures = 0;
+				}
+			} catch (IOException ex) {
+				boolean first;
+
+				synchronized (this) {
+					dirty = true;
+					first = ++failures == 1;
+
+					if (!scheduled && failures <= maxRetries) {
+						scheduled = true;
+						long delay = Math.min(retryDelay << (failures - 1), maxRetryDelay);
+						flusher.schedule(this::flushWhenIdle, delay, TimeUnit.NANOSECONDS);
+					}
+				}
+
+				if (first)
+					EventBus.publishError(errorReceiver, ex);
+			}
+		}
+	}
+
+	private Properties load() {
+		if (properties == null) {
+			properties = new Properties();
+
+			if (Files.exists(path)) {
+				try (InputStream input = Files.newInputStream(path)) {
+					properties.load(input);
+				} catch (IOException ex) {
+					EventBus.publishError(errorReceiver, ex);
+				}
+			}
+		}
+
+		return properties;
+	}
+
+	private void changed() {
+		dirty = true;
+		lastChange = System.nanoTime();
+
+		if (!scheduled) {
+			scheduled = true;
+			flusher.schedule(this::flushWhenIdle, flushDelay, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void flushWhenIdle() {
+		synchronized (this) {
+			long remaining = flushDelay - (System.nanoTime() - lastChange);
+
+			if (remaining > 0) {
+				flusher.schedule(this::flushWhenIdle, remaining, TimeUnit.NANOSECONDS);
+				return;
+			}
+
+			scheduled = false;
+		}
+
+		flush();
+	}
+
+	private void write(Properties snapshot) throws IOException {
+		if (snapshot.isEmpty()) {
+			Files.deleteIfExists(path);
+			return;
+		}
+
+		Path dir = path.getParent();
+		Files.createDirectories(dir);
+
+		Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+
+		try {
+			try (OutputStream output = Files.newOutputStream(temp)) {
+				snapshot.store(output, "");
+			}
+
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package tornadofx;
+
+/**
+ * Content encoding used to compress request bodies sent by Rest
+ *
+ * @see Rest#setRequestCompression(Compression)
+ */
+public enum Compression {
+	/**
+	 * Send the body as is
+	 */
+	NONE(null),
+
+	/**
+	 * Compress the body with gzip
+	 */
+	GZIP("gzip"),
+
+	/**
+	 * Compress the body with zlib deflate
+	 */
+	DEFLATE("deflate");
+
+	private final String contentEncoding;
+
+	Compression(String contentEncoding) {
+		this.contentEncoding = contentEncoding;
+	}
+
+	/**
+	 * @return The value of the Content-Encoding header, or null for NONE
+	 */
+	public String getContentEncoding() {
+		return contentEncoding;
+	}
+}
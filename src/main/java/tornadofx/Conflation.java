@@ -0,0 +1,24 @@
+package tornadofx;
+
+/**
+ * How an @OnEvent listener folds together events that arrive while an earlier delivery
+ * to the listener thread is still pending.
+ *
+ * @see OnEvent#conflate()
+ */
+public enum Conflation {
+	/**
+	 * Deliver every event
+	 */
+	NONE,
+
+	/**
+	 * Only deliver the latest event, older pending events are dropped
+	 */
+	LATEST,
+
+	/**
+	 * Deliver the latest event for each distinct {@link FXEvent#getConflationKey()}
+	 */
+	KEY
+}
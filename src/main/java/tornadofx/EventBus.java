@@ -1,37 +1,171 @@
 package tornadofx;
 
+import javafx.application.Platform;
+
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class EventBus {
-	private static Map<Class<? extends FXEvent>, List<EventListener>> listeners = new HashMap<>();
+	private static final EventListener[] NO_LISTENERS = new EventListener[0];
+
+	/**
+	 * Listeners per event type. The arrays are never modified after they are published,
+	 * subscribe/unsubscribe replace them with a copy inside ConcurrentHashMap.compute, which
+	 * only locks the bin for that event type. Publish iterates the arrays without any locking.
+	 */
+	private static final ConcurrentMap<Class<?>, EventListener[]> listeners = new ConcurrentHashMap<>();
+
+	/**
+	 * Listeners resolved for each concrete event class, including listeners for its superclasses
+	 * and interfaces. Replaced with an empty map after every change to the listeners, so a
+	 * resolution computed from an older registry can never end up in the current cache.
+	 */
+	private static volatile ConcurrentMap<Class<?>, EventListener[]> resolved = new ConcurrentHashMap<>();
+
+	private static final LongAdder conflatedEvents = new LongAdder();
 
 	static void subscribe(EventCapable owner, Method consumer, OnEvent config) {
-		EventListener listener = new EventListener(owner, consumer, config);
-		getListenersForEventType(listener.getEventType()).add(listener);
+		subscribe(owner, consumer, config, EventInvoker.compile(consumer));
+	}
+
+	static void subscribe(EventCapable owner, Method consumer, OnEvent config, EventInvoker invoker) {
+		Class<?> eventType = consumer.getParameterTypes()[0];
+
+		subscribe(owner, listenerKey(consumer.getName(), eventType), eventType, invoker,
+			config.conflate(), config.thread(), config.executor());
+	}
+
+	static void subscribe(EventCapable owner, String key, Class<?> eventType, EventInvoker invoker,
+	                      Conflation conflate, EventThread thread, String executor) {
+		EventListener listener = new EventListener(owner, key, eventType, invoker, conflate, thread, executor);
+
+		listeners.compute(eventType, (type, current) -> {
+			if (current == null)
+				return new EventListener[] { listener };
+
+			for (EventListener existing : current)
+				if (existing.matches(owner, key))
+					return current;
+
+			EventListener[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = listener;
+			return updated;
+		});
+
+		resolved = new ConcurrentHashMap<>();
 	}
 
 	static void unsubscribe(EventCapable owner, Method consumer, OnEvent config) {
-		EventListener listener = new EventListener(owner, consumer, config);
-		getListenersForEventType(listener.getEventType()).remove(listener);
+		Class<?> eventType = consumer.getParameterTypes()[0];
+		remove(eventType, owner, listenerKey(consumer.getName(), eventType));
+	}
+
+	/**
+	 * Subscriber that generated ComponentInjectors use to register the listeners of the given owner
+	 */
+	@SuppressWarnings("unchecked")
+	static EventSubscriber subscriber(EventCapable owner) {
+		return new EventSubscriber() {
+			public <EventType> void subscribe(String methodName, Class<EventType> eventType, Listener<? super EventType> listener,
+			                                  Conflation conflate, EventThread thread, String executor) {
+				EventBus.subscribe(owner, listenerKey(methodName, eventType), eventType,
+					(target, event) -> listener.onEvent((EventType) event), conflate, thread, executor);
+			}
+		};
+	}
+
+	/**
+	 * Identifies a listener method within its owner, no matter if it was registered via reflection or a generated injector
+	 */
+	private static String listenerKey(String methodName, Class<?> eventType) {
+		return methodName + "(" + eventType.getName() + ")";
 	}
 
 	static void publish(FXEvent event) {
-		for (EventListener listener : getListenersForEventType(event.getClass()).stream().collect(Collectors.toList()))
+		for (EventListener listener : getListenersForEvent(event.getClass()))
 			listener.dispatch(event);
 	}
 
-	@SuppressWarnings("unchecked")
-	private static List<EventListener> getListenersForEventType(Class<? extends FXEvent> eventType) {
-		List<EventListener> list = listeners.get(eventType);
+	/**
+	 * Find all listeners that accept the given event class, either directly or through
+	 * a superclass or interface. The hierarchy is only walked the first time an event class
+	 * is published after the listeners changed.
+	 */
+	private static EventListener[] getListenersForEvent(Class<? extends FXEvent> eventClass) {
+		ConcurrentMap<Class<?>, EventListener[]> cache = resolved;
+		EventListener[] array = cache.get(eventClass);
 
-		if (list == null) {
-			list = new ArrayList<>();
-			listeners.put(eventType, list);
+		if (array == null) {
+			array = resolve(eventClass);
+			cache.putIfAbsent(eventClass, array);
 		}
 
-		return list;
+		return array;
+	}
+
+	private static EventListener[] resolve(Class<?> eventClass) {
+		List<EventListener> matching = new ArrayList<>();
+
+		for (Class<?> type : getTypeHierarchy(eventClass))
+			Collections.addAll(matching, getListenersForEventType(type));
+
+		return matching.isEmpty() ? NO_LISTENERS : matching.toArray(new EventListener[matching.size()]);
+	}
+
+	/**
+	 * The class itself, then its superclasses, then all implemented interfaces
+	 */
+	private static Set<Class<?>> getTypeHierarchy(Class<?> eventClass) {
+		Set<Class<?>> types = new LinkedHashSet<>();
+
+		for (Class<?> type = eventClass; type != null; type = type.getSuperclass())
+			types.add(type);
+
+		Deque<Class<?>> queue = new ArrayDeque<>(types);
+		while (!queue.isEmpty()) {
+			for (Class<?> iface : queue.poll().getInterfaces()) {
+				if (types.add(iface))
+					queue.add(iface);
+			}
+		}
+
+		return types;
+	}
+
+	private static EventListener[] getListenersForEventType(Class<?> eventType) {
+		EventListener[] array = listeners.get(eventType);
+		return array == null ? NO_LISTENERS : array;
+	}
+
+	private static void remove(Class<?> eventType, Object target, String key) {
+		listeners.computeIfPresent(eventType, (type, current) -> {
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].matches(target, key)) {
+					if (current.length == 1)
+						return null;
+
+					EventListener[] updated = new EventListener[current.length - 1];
+					System.arraycopy(current, 0, updated, 0, i);
+					System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+					return updated;
+				}
+			}
+
+			return current;
+		});
+
+		resolved = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @return The number of events that were dropped because a newer event replaced them
+	 * before they were delivered to a listener with conflation enabled
+	 */
+	public static long getConflatedEventCount() {
+		return conflatedEvents.sum();
 	}
 
 	public static void publishError(Component source, Throwable error) {
@@ -40,33 +174,87 @@ public class EventBus {
 		publish(event);
 	}
 
-	@SuppressWarnings("unchecked")
 	private static class EventListener {
-		OnEvent config;
 		EventCapable target;
-		Method method;
+		String key;
+		Class<?> eventType;
+		EventInvoker invoker;
+		EventThread thread;
+		String executor;
+		Conflator conflator;
 
-		public EventListener(EventCapable target, Method consumer, OnEvent config) {
+		public EventListener(EventCapable target, String key, Class<?> eventType, EventInvoker invoker,
+		                     Conflation conflate, EventThread thread, String executor) {
 			this.target = target;
-			method = consumer;
-			this.config = config;
+			this.key = key;
+			this.eventType = eventType;
+			this.invoker = invoker;
+			this.thread = thread;
+			this.executor = executor;
+
+			if (conflate != Conflation.NONE)
+				conflator = new Conflator(conflate);
 		}
 
 		void dispatch(FXEvent event) {
-			ThrowableRunnable invocation = () -> {
+			if (runsInline())
+				invoke(event);
+			else if (conflator == null)
+				schedule(() -> invoke(event));
+			else if (conflator.offer(event))
+				schedule(() -> conflator.drain().forEach(this::invoke));
+		}
+
+		private boolean runsInline() {
+			if (!executor.isEmpty())
+				return false;
+
+			switch (thread) {
+				case CALLER:
+					return true;
+				case UI:
+					return Platform.isFxApplicationThread();
+				case BACKGROUND:
+					return false;
+				default:
+					return FX.runsInline((Component) target, Platform.isFxApplicationThread());
+			}
+		}
+
+		private void schedule(ThrowableRunnable invocation) {
+			Component source = (Component) target;
+
+			if (!executor.isEmpty()) {
+				InjectionContext.catchAndPublishError(source, () ->
+					FX.getExecutor(executor).execute(FX.errorReportingRunnable(source, invocation)));
+			} else if (thread == EventThread.UI) {
+				FXQueue.submit(FX.errorReportingRunnable(source, invocation));
+			} else if (thread == EventThread.BACKGROUND) {
+				FX.getExecutor().execute(FX.errorReportingRunnable(source, invocation));
+			} else {
+				FX.submit(invocation, source);
+			}
+		}
+
+		void invoke(FXEvent event) {
+			try {
 				event.resetContext();
 
-				ReflectionTools.invoke(target, method, event);
+				invoker.invoke(target, event);
 
 				if (event.getContext().isRemoveListener())
-					getListenersForEventType(event.getClass()).remove(this);
-			};
+					remove(eventType, target, key);
+			} catch (Exception ex) {
+				EventBus.publishError((Component) target, ex);
+			}
+		}
 
-			FX.submit(invocation, (Component) target);
+		Class<?> getEventType() {
+			return eventType;
 		}
 
-		Class<? extends FXEvent> getEventType() {
-			return (Class<? extends FXEvent>) method.getParameterTypes()[0];
+		boolean matches(Object target, String key) {
+			return this.target == target && this.key.equals(key);
 		}
 
 		public boolean equals(Object o) {
@@ -74,11 +262,49 @@ public class EventBus {
 			if (!(o instanceof EventListener)) return false;
 			EventListener that = (EventListener) o;
 			return Objects.equals(target, that.target) &&
-				Objects.equals(method, that.method);
+				Objects.equals(key, that.key);
 		}
 
 		public int hashCode() {
-			return Objects.hash(target, method);
+			return Objects.hash(target, key);
+		}
+	}
+
+	/**
+	 * Collects events for a listener while a delivery to the listener thread is pending.
+	 * Only the first event of a burst schedules a delivery, the delivery then runs the
+	 * latest event for each key.
+	 */
+	private static class Conflator {
+		private final Conflation mode;
+		private final Map<Object, FXEvent> pending = new LinkedHashMap<>();
+		private boolean scheduled;
+
+		Conflator(Conflation mode) {
+			this.mode = mode;
+		}
+
+		/**
+		 * @return true if the caller must schedule a delivery
+		 */
+		synchronized boolean offer(FXEvent event) {
+			Object key = mode == Conflation.LATEST ? this : event.getConflationKey();
+
+			if (pending.put(key == null ? event : key, event) != null)
+				conflatedEvents.increment();
+
+			if (scheduled)
+				return false;
+
+			scheduled = true;
+			return true;
+		}
+
+		synchronized List<FXEvent> drain() {
+			List<FXEvent> events = new ArrayList<>(pending.values());
+			pending.clear();
+			scheduled = false;
+			return events;
 		}
 	}
 }
@@ -0,0 +1,29 @@
+package tornadofx;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * A precompiled call to an @OnEvent listener method. Built once when the listener
+ * is subscribed so dispatching an event does not go through Method.invoke.
+ */
+@FunctionalInterface
+interface EventInvoker {
+	void invoke(Object target, FXEvent event) throws Exception;
+
+	static EventInvoker compile(Method method) {
+		MethodHandle handle = ReflectionTools.unreflect(method)
+			.asType(MethodType.methodType(void.class, Object.class, FXEvent.class));
+
+		return (target, event) -> {
+			try {
+				handle.invokeExact(target, event);
+			} catch (Exception ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new RuntimeException(ex);
+			}
+		};
+	}
+}
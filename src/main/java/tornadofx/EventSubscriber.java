@@ -0,0 +1,27 @@
+package tornadofx;
+
+/**
+ * Registers the @OnEvent listeners of a component. Used by generated ComponentInjectors
+ * so listeners can be subscribed without looking up the listener methods via reflection.
+ *
+ * @see ComponentInjector#subscribe(Component, EventSubscriber)
+ */
+public interface EventSubscriber {
+	/**
+	 * Subscribe a listener with the given @OnEvent configuration
+	 *
+	 * @param methodName The name of the listener method, identifies the listener within the component
+	 * @param eventType  The event class or interface the listener accepts
+	 * @param listener   Invokes the listener method
+	 * @param conflate   @OnEvent conflate value
+	 * @param thread     @OnEvent thread value
+	 * @param executor   @OnEvent executor value
+	 */
+	<EventType> void subscribe(String methodName, Class<EventType> eventType, Listener<? super EventType> listener,
+	                           Conflation conflate, EventThread thread, String executor);
+
+	@FunctionalInterface
+	interface Listener<EventType> {
+		void onEvent(EventType event) throws Exception;
+	}
+}
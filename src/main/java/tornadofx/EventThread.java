@@ -0,0 +1,30 @@
+package tornadofx;
+
+/**
+ * The thread an @OnEvent listener is invoked in.
+ *
+ * @see OnEvent#thread()
+ */
+public enum EventThread {
+	/**
+	 * UI Components receive events on the FX thread, other components in a background thread
+	 */
+	DEFAULT,
+
+	/**
+	 * Invoke the listener directly in the thread that published the event
+	 */
+	CALLER,
+
+	/**
+	 * Always invoke the listener on the FX thread
+	 */
+	UI,
+
+	/**
+	 * Always invoke the listener in the framework executor
+	 *
+	 * @see FX#setExecutor
+	 */
+	BACKGROUND
+}
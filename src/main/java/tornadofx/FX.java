@@ -16,8 +16,8 @@ import javafx.stage.Stage;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Objects;
+import java.util.concurrent.*;
 
 import static tornadofx.ReflectionTools.getFieldValue;
 import static tornadofx.ReflectionTools.getFxChildren;
@@ -32,11 +32,9 @@ public class FX {
 	 * 	This executor should therefore not be used to run tasks that must complete before the app
 	 * 	can exit after the last window is closed. For GUI app tasks this is probably a good default.
 	 */
-	static final ExecutorService executor = Executors.newCachedThreadPool(job -> {
-		Thread thread = Executors.defaultThreadFactory().newThread(job);
-		thread.setDaemon(true);
-		return thread;
-	});
+	private static volatile ExecutorService executor = Executors.newCachedThreadPool(FX::newDaemonThread);
+
+	private static final Map<String, Executor> namedExecutors = new ConcurrentHashMap<>();
 
 	static Stage primaryStage;
 
@@ -54,10 +52,10 @@ public class FX {
 	static void dock(UIComponent child, UIComponent component, Node containerNode) {
 		UIContainer config = null;
 
-		for (Field field : component.getClass().getDeclaredFields()) {
-			if (field.getType().isAssignableFrom(containerNode.getClass())) {
-				if (containerNode.equals(ReflectionTools.getFieldValue(component, field))) {
-					config = field.getAnnotation(UIContainer.class);
+		for (ComponentMetadata.ContainerField container : ComponentMetadata.of(component.getClass()).containerFields) {
+			if (container.field.getType().isAssignableFrom(containerNode.getClass())) {
+				if (containerNode.equals(ReflectionTools.getFieldValue(component, container.field))) {
+					config = container.config;
 					break;
 				}
 			}
@@ -130,10 +128,10 @@ public class FX {
 	 * @param component The component to look for UIContainers in
 	 */
 	static void registerUIContainers(View component) {
-		for (Field field : component.getClass().getDeclaredFields()) {
-			UIContainer config = field.getAnnotation(UIContainer.class);
-
-			if (config != null && Node.class.isAssignableFrom(field.getType())) {
+		for (ComponentMetadata.ContainerField container : ComponentMetadata.of(component.getClass()).containerFields) {
+			if (container.isNode()) {
+				Field field = container.field;
+				UIContainer config = container.config;
 				Node node = getFieldValue(component, field);
 
 				UIContainerRef ref = new UIContainerRef(component, node);
@@ -186,13 +184,78 @@ public class FX {
 	 */
 	static void submit(ThrowableRunnable invocation, Component source, Boolean isFxThread) {
 		if (isFxThread && !source.isUIComponent())
-			FX.executor.submit(errorReportingRunnable(source, invocation));
+			executor.execute(errorReportingRunnable(source, invocation));
 		else if (!isFxThread && source.isUIComponent())
-			Platform.runLater(errorReportingRunnable(source, invocation));
+			FXQueue.submit(errorReportingRunnable(source, invocation));
 		else
 			errorReportingRunnable(source, invocation).run();
 	}
 
+	/**
+	 * Will submit() run the invocation directly in the calling thread?
+	 *
+	 * @param source     The target component
+	 * @param isFxThread Are we running in the FX Thread?
+	 */
+	static boolean runsInline(Component source, boolean isFxThread) {
+		return isFxThread == source.isUIComponent();
+	}
+
+	/**
+	 * The executor used for background work, like async() operations and event listeners
+	 * in non UI Components that are invoked from the FX thread.
+	 */
+	public static ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Replace the framework executor, for example with a bounded pool to cap the number of threads,
+	 * or with a virtual thread per task executor on JDKs that support it. The previous executor is not shut down.
+	 *
+	 * @param executor The executor to use for background work
+	 * @see #newBoundedExecutor(int)
+	 */
+	public static void setExecutor(ExecutorService executor) {
+		FX.executor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * Create an executor with a fixed number of daemon threads. The returned ThreadPoolExecutor
+	 * exposes the queue and active thread count, so queueing can be measured.
+	 *
+	 * @param threads The maximum number of threads
+	 * @return A new bounded executor
+	 */
+	public static ThreadPoolExecutor newBoundedExecutor(int threads) {
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), FX::newDaemonThread);
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * Make an executor available by name for @OnEvent(executor = name) listeners
+	 */
+	public static void registerExecutor(String name, Executor executor) {
+		namedExecutors.put(name, executor);
+	}
+
+	static Executor getExecutor(String name) {
+		Executor named = namedExecutors.get(name);
+
+		if (named == null)
+			throw new IllegalArgumentException(String.format("No executor registered with the name '%s'", name));
+
+		return named;
+	}
+
+	static Thread newDaemonThread(Runnable job) {
+		Thread thread = Executors.defaultThreadFactory().newThread(job);
+		thread.setDaemon(true);
+		return thread;
+	}
+
 	static Runnable errorReportingRunnable(Component source, ThrowableRunnable runnable) {
 		return () -> InjectionContext.catchAndPublishError(source, runnable);
 	}
@@ -211,16 +274,11 @@ public class FX {
 	 * Dock Views and Fragments into any registered UIContainer fields in the given View
 	 */
 	static void fillUIContainers(UIComponent component) {
-		for (Field field : component.getClass().getDeclaredFields()) {
-
-			UIContainer config = field.getAnnotation(UIContainer.class);
-
-			if (config != null) {
-				for (Class<? extends UIComponent> autoload : config.load()) {
-					UIComponent child = InjectionContext.get(autoload);
-					Node node = ReflectionTools.getFieldValue(component, field);
-					dock(child, component, node);
-				}
+		for (ComponentMetadata.ContainerField container : ComponentMetadata.of(component.getClass()).containerFields) {
+			for (Class<? extends UIComponent> autoload : container.config.load()) {
+				UIComponent child = InjectionContext.get(autoload);
+				Node node = ReflectionTools.getFieldValue(component, container.field);
+				dock(child, component, node);
 			}
 		}
 	}
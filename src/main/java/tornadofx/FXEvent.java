@@ -12,8 +12,23 @@ public abstract class FXEvent {
 		this.source = source;
 	}
 
+	/**
+	 * Events with the same key replace each other when delivered to a listener
+	 * with {@link Conflation#KEY}. Events without a key are never conflated.
+	 *
+	 * @return The conflation key for this event, or null
+	 */
+	public Object getConflationKey() {
+		return null;
+	}
+
 	void resetContext() {
-		context.set(new ListenerContext());
+		ListenerContext current = context.get();
+
+		if (current == null)
+			context.set(new ListenerContext());
+		else
+			current.removeListener = false;
 	}
 
 	public ListenerContext getContext() {
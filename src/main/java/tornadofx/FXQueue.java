@@ -0,0 +1,207 @@
+package tornadofx;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Framework owned queue for work that must be marshalled to the FX thread.
+ * <p/>
+ * Instead of one Platform.runLater per invocation, the queue schedules a single drain on the FX thread
+ * and runs as many queued invocations as fits the frame budget. Anything left is picked up by the next
+ * drain, so the FX thread gets to render in between. If a capacity is set, background threads that
+ * submit to a full queue are held back until the FX thread catches up. Bookkeeping posted by the
+ * framework is never held back.
+ * <p/>
+ * When the FX toolkit is not running, e.g. in a headless service or a unit test, there is no FX thread
+ * to wait for and queued invocations run in the submitting thread, one thread at a time.
+ */
+public class FXQueue {
+	private static final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger depth = new AtomicInteger();
+	private static final AtomicBoolean scheduled = new AtomicBoolean();
+	private static final Object capacityLock = new Object();
+
+	private static volatile long frameBudget = TimeUnit.MILLISECONDS.toNanos(8);
+	private static volatile int capacity = Integer.MAX_VALUE;
+
+	private static volatile long lastLatency;
+	private static volatile long maxLatency;
+
+	/**
+	 * The thread running the queue while the FX toolkit is not running
+	 */
+	private static volatile Thread headlessRunner;
+
+	/**
+	 * Queue an invocation, waiting for room first if the queue is full and the caller is a background thread
+	 */
+	static void submit(Runnable runnable) {
+		if (depth.get() >= capacity && !Platform.isFxApplicationThread() && Thread.currentThread() != headlessRunner)
+			awaitCapacity();
+
+		post(runnable);
+	}
+
+	/**
+	 * Queue an invocation without ever blocking the caller, regardless of the capacity. Meant for small
+	 * bookkeeping updates made from I/O threads, which must not wait for the FX thread.
+	 */
+	static void post(Runnable runnable) {
+		queue.add(new Entry(runnable));
+		depth.incrementAndGet();
+
+		schedule();
+	}
+
+	private static void schedule() {
+		if (!scheduled.compareAndSet(false, true))
+			return;
+
+		try {
+			Platform.runLater(FXQueue::drain);
+		} catch (IllegalStateException ex) {
+			// The toolkit is not initialized, so there is no FX thread to hand the work to
+			runHeadless();
+		}
+	}
+
+	private static void drain() {
+		long deadline = System.nanoTime() + frameBudget;
+
+		try {
+			Entry entry;
+			while ((entry = queue.poll()) != null) {
+				run(entry);
+
+				if (System.nanoTime() - deadline > 0)
+					break;
+			}
+		} finally {
+			synchronized (capacityLock) {
+				capacityLock.notifyAll();
+			}
+
+			scheduled.set(false);
+
+			if (!queue.isEmpty())
+				schedule();
+		}
+	}
+
+	/**
+	 * Run everything in the queue in the current thread. Invocations queued by other threads while it runs
+	 * are picked up as well, so they still run one at a time and in order.
+	 */
+	private static void runHeadless() {
+		do {
+			headlessRunner = Thread.currentThread();
+
+			try {
+				Entry entry;
+				while ((entry = queue.poll()) != null)
+					run(entry);
+			} finally {
+				headlessRunner = null;
+
+				synchronized (capacityLock) {
+					capacityLock.notifyAll();
+				}
+
+				scheduled.set(false);
+			}
+		} while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+	}
+
+	private static void run(Entry entry) {
+		depth.decrementAndGet();
+
+		long now = System.nanoTime();
+		lastLatency = now - entry.queued;
+		if (lastLatency > maxLatency)
+			maxLatency = lastLatency;
+
+		entry.runnable.run();
+	}
+
+	private static void awaitCapacity() {
+		synchronized (capacityLock) {
+			while (depth.get() >= capacity) {
+				try {
+					capacityLock.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The number of invocations waiting to run on the FX thread
+	 */
+	public static int getDepth() {
+		return depth.get();
+	}
+
+	/**
+	 * @return Time in nanoseconds between submit and execution for the last invocation that ran
+	 */
+	public static long getLastLatency() {
+		return lastLatency;
+	}
+
+	/**
+	 * @return The highest time in nanoseconds between submit and execution since the last reset
+	 */
+	public static long getMaxLatency() {
+		return maxLatency;
+	}
+
+	public static void resetMaxLatency() {
+		maxLatency = 0;
+	}
+
+	/**
+	 * Maximum time the queue is drained in one go before yielding the FX thread. Defaults to 8 ms.
+	 */
+	public static void setFrameBudget(long duration, TimeUnit unit) {
+		frameBudget = unit.toNanos(duration);
+	}
+
+	public static long getFrameBudget(TimeUnit unit) {
+		return unit.convert(frameBudget, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Maximum number of queued invocations before background threads block in submit.
+	 * Submissions from the FX thread and bookkeeping posted by the framework are never blocked.
+	 * Defaults to unbounded.
+	 */
+	public static void setCapacity(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+
+		FXQueue.capacity = capacity;
+
+		synchronized (capacityLock) {
+			capacityLock.notifyAll();
+		}
+	}
+
+	public static int getCapacity() {
+		return capacity;
+	}
+
+	private static class Entry {
+		final Runnable runnable;
+		final long queued = System.nanoTime();
+
+		Entry(Runnable runnable) {
+			this.runnable = runnable;
+		}
+	}
+}
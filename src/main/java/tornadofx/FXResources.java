@@ -6,12 +6,15 @@ import javafx.scene.Parent;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @SuppressWarnings("unchecked")
 class FXResources {
-	static List<String> stylesheets = new ArrayList<>();
+	/**
+	 * Components may be created in parallel, so styles are registered from several threads at once
+	 */
+	static List<String> stylesheets = new CopyOnWriteArrayList<>();
 
 	static <NodeType extends Node> NodeType loadFxml(UIComponent<NodeType> component) throws IOException {
 		Class componentType = component.getClass();
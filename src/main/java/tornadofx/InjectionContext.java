@@ -1,97 +1,172 @@
 package tornadofx;
 
+import javafx.application.Platform;
 import javafx.scene.Node;
-import javafx.util.Pair;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
-
-import static tornadofx.ReflectionTools.setFieldValue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 @SuppressWarnings("unchecked")
 public class InjectionContext {
-	private static final Map<Class, Component> singletons = new HashMap<>();
-
+	private static final ConcurrentMap<Class, ComponentRef> singletons = new ConcurrentHashMap<>();
+
+	/**
+	 * The component each thread is currently waiting to be created by another thread, used to detect cycles
+	 */
+	private static final ConcurrentMap<Thread, ComponentRef> waiting = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of nested get() calls in progress in the current thread
+	 */
+	private static final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+	private static volatile boolean parallelCreation = true;
+
+	/**
+	 * Lookup or create a component. Singletons are created exactly once, even if several threads ask for the same type at once.
+	 * <p/>
+	 * A top level call returns when the component has been fully initialized, possibly by another thread. Nested calls
+	 * made while injecting dependencies return as soon as the instance exists, so cyclic @Inject graphs resolve
+	 * like they do when all components are created in the same thread.
+	 * <p/>
+	 * Dependencies that another thread is creating at the same time are only awaited until they have been constructed.
+	 * Their injection and postInit run in the thread that claimed them, so they may not have completed when this
+	 * lookup returns. Waiting for them as well could deadlock when that thread is in turn waiting for a component
+	 * claimed here. Code that needs a dependency fully initialized should look it up directly instead of relying
+	 * on the injected instance during postInit.
+	 */
 	@SuppressWarnings("unchecked")
 	public static <InjectableType extends Component> InjectableType get(Class<InjectableType> type) {
-		if (singletons.containsKey(type))
-			return (InjectableType) singletons.get(type);
+		ComponentRef existing = singletons.get(type);
+		if (existing != null && existing.initialized.isDone())
+			return (InjectableType) join(existing.initialized);
 
+		boolean topLevel = depth.get() == 0;
+		List<ComponentRef> refs = new ArrayList<>();
+		List<ComponentRef> claimed = new ArrayList<>();
 		List<Component> components = new ArrayList<>();
 
-		Set<Class> injectableTypes = InjectionContext.scanForInjectables(type);
+		depth.set(depth.get() + 1);
 
-		for (Class it : injectableTypes) {
-			Pair<Component, Boolean> result = lookupOrCreate(it);
+		try {
+			Set<Class> injectableTypes = InjectionContext.scanForInjectables(type);
 
-			Component component = result.getKey();
-			boolean wasCreated = result.getValue();
+			for (Class it : injectableTypes)
+				refs.add(claim(it, claimed));
 
-			if (wasCreated)
-				components.add(component);
-		}
+			createAll(claimed);
 
-		components.stream()
-			.forEach(component -> {
-				if (component.isView())
-					FX.registerUIContainers(component.toView());
+			// Components claimed by other threads are only awaited until constructed, see the method comment
+			for (ComponentRef ref : refs) {
+				Component component = ref.awaitCreated();
 
-				if (EventCapable.class.isAssignableFrom(component.getClass()))
-					registerEventListeners((EventCapable) component);
+				if (claimed.contains(ref))
+					components.add(component);
+			}
+
+			components.stream()
+				.forEach(component -> {
+					if (component.isView())
+						FX.registerUIContainers(component.toView());
 
-				inject(component);
-			});
+					if (EventCapable.class.isAssignableFrom(component.getClass()))
+						registerEventListeners((EventCapable) component);
 
-		components.forEach(InjectionContext::postConstruct);
+					inject(component);
+				});
 
-		components.stream().filter(Component::isUIComponent).map(Component::toUIComponent).forEach(FX::fillUIContainers);
+			components.forEach(InjectionContext::postConstruct);
 
-		components.forEach(InjectionContext::postInit);
+			components.stream().filter(Component::isUIComponent).map(Component::toUIComponent).forEach(FX::fillUIContainers);
 
-		return (InjectableType) components.get(0);
+			components.forEach(InjectionContext::postInit);
+		} finally {
+			depth.set(depth.get() - 1);
+			claimed.forEach(ComponentRef::release);
+		}
+
+		ComponentRef requested = refs.get(0);
+
+		if (topLevel && requested.singleton)
+			return (InjectableType) join(requested.initialized);
+
+		return (InjectableType) join(requested.created);
 	}
 
 	static Set<Class> scanForInjectables(Class type) {
-		Set<Class> injectables = new LinkedHashSet<>();
-		scanForInjectables(injectables, type);
-		return injectables;
+		return ComponentMetadata.of(type).getInjectables();
 	}
 
-	static Pair<Component, Boolean> lookupOrCreate(Class<? extends Component> componentType) {
-		Component injectable;
-		Boolean constructed;
+	/**
+	 * Create components in parallel instead of one after the other when a lookup needs to construct
+	 * more than one component. Construction and node creation of each component is independent of the
+	 * others, since dependencies are injected afterwards, so the whole set is created concurrently.
+	 * Injection, postConstruct, fillUIContainers and postInit still run in order in the calling thread.
+	 * <p/>
+	 * Lookups made from the FX thread always create components in the FX thread. Defaults to true.
+	 */
+	public static void setParallelCreation(boolean parallelCreation) {
+		InjectionContext.parallelCreation = parallelCreation;
+	}
+
+	public static boolean isParallelCreation() {
+		return parallelCreation;
+	}
 
+	/**
+	 * Find the existing singleton of the given type or claim the right to create it.
+	 * Fragments are always claimed, as a new instance is created for every lookup.
+	 */
+	private static ComponentRef claim(Class<? extends Component> componentType, List<ComponentRef> claimed) {
 		if (Fragment.class.isAssignableFrom(componentType)) {
-			injectable = ReflectionTools.create(componentType);
-			constructed = true;
-		} else {
-			if (singletons.containsKey(componentType)) {
-				injectable = singletons.get(componentType);
-				constructed = false;
-			} else {
-				injectable = ReflectionTools.create(componentType);
-				singletons.put(componentType, injectable);
-				constructed = true;
-			}
+			ComponentRef ref = new ComponentRef(componentType, false);
+			claimed.add(ref);
+			return ref;
 		}
 
-		if (constructed && injectable.isUIComponent()) {
-			UIComponent component = (UIComponent) injectable;
+		ComponentRef ref = new ComponentRef(componentType, true);
+		ComponentRef existing = singletons.putIfAbsent(componentType, ref);
+
+		if (existing != null)
+			return existing;
 
-			catchAndPublishError(component, () -> {
-				Node node = component.createNode();
+		claimed.add(ref);
+		return ref;
+	}
+
+	private static void createAll(List<ComponentRef> claimed) {
+		if (parallelCreation && claimed.size() > 1 && !Platform.isFxApplicationThread()) {
+			int level = depth.get();
+			ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 
-				if (node == null)
-					throw new IllegalArgumentException(String.format("%s did not return a Node from createNode", injectable));
+			CompletableFuture[] tasks = claimed.stream()
+				.map(ref -> CompletableFuture.runAsync(() -> ref.createIn(classLoader, level), ForkJoinPool.commonPool()))
+				.toArray(CompletableFuture[]::new);
 
-				component.nodeProperty().setValue(node);
-				FXResources.loadStyles(component);
-				node.getProperties().put("fxcomponent", injectable);
-			});
+			// Failures are kept in each ComponentRef and rethrown in order by awaitCreated
+			CompletableFuture.allOf(tasks).handle((result, error) -> null).join();
+		} else {
+			claimed.forEach(ComponentRef::create);
 		}
+	}
+
+	private static Component join(CompletableFuture<Component> future) {
+		try {
+			return future.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException)
+				throw (RuntimeException) ex.getCause();
 
-		return new Pair(injectable, constructed);
+			if (ex.getCause() instanceof Error)
+				throw (Error) ex.getCause();
+
+			throw ex;
+		}
 	}
 
 	static void catchAndPublishError(Component source, ThrowableRunnable runnable) {
@@ -117,46 +192,135 @@ public class InjectionContext {
 	}
 
 	static void registerEventListeners(EventCapable eventCapable) {
-		for (Method method : eventCapable.getClass().getDeclaredMethods()) {
-			OnEvent onEvent = method.getAnnotation(OnEvent.class);
-
-			if (onEvent != null && method.getParameterCount() == 1 && FXEvent.class.isAssignableFrom(method.getParameterTypes()[0]))
-				EventBus.subscribe(eventCapable, method, onEvent);
-		}
+		ComponentMetadata.of(eventCapable.getClass()).subscribe(eventCapable);
 	}
 
-	@SuppressWarnings("SuspiciousMethodCalls")
 	static void inject(Component component) {
-		for (Field field : component.getClass().getDeclaredFields()) {
-			if (Component.class.isAssignableFrom(field.getType())) {
-				Inject inject = field.getAnnotation(Inject.class);
+		ComponentMetadata.of(component.getClass()).inject(component);
+	}
+
+	/**
+	 * A component that is being created or has been created on behalf of the owner thread.
+	 * The owner wires and initializes the component, but any thread may construct it.
+	 */
+	private static class ComponentRef {
+		final Class<? extends Component> type;
+		final boolean singleton;
+		final Thread owner = Thread.currentThread();
+		final AtomicReference<Thread> builder = new AtomicReference<>();
+		final CompletableFuture<Component> created = new CompletableFuture<>();
+		final CompletableFuture<Component> initialized = new CompletableFuture<>();
+
+		ComponentRef(Class<? extends Component> type, boolean singleton) {
+			this.type = type;
+			this.singleton = singleton;
+		}
+
+		/**
+		 * Construct the component and its node, unless another thread has already started doing so
+		 */
+		void create() {
+			if (!builder.compareAndSet(null, Thread.currentThread()))
+				return;
+
+			try {
+				Component injectable = ComponentMetadata.of(type).create();
 
-				if (inject != null && Component.class.isAssignableFrom(field.getType()))
-					setFieldValue(component, field, get((Class<Component>)field.getType()));
+				if (injectable.isUIComponent()) {
+					UIComponent component = (UIComponent) injectable;
+
+					catchAndPublishError(component, () -> {
+						Node node = component.createNode();
+
+						if (node == null)
+							throw new IllegalArgumentException(String.format("%s did not return a Node from createNode", injectable));
+
+						component.nodeProperty().setValue(node);
+						FXResources.loadStyles(component);
+						node.getProperties().put("fxcomponent", injectable);
+					});
+				}
+
+				created.complete(injectable);
+			} catch (Throwable ex) {
+				// Errors must complete the futures as well, or every thread waiting for the component hangs
+				fail(ex);
 			}
 		}
-	}
 
-	private static void scanForInjectables(Set<Class> injectables, Class<? extends Component> type) {
-		if (injectables.contains(type))
-			return;
+		/**
+		 * Create in a worker thread on behalf of the owner, with the owner's class loader and injection depth
+		 */
+		void createIn(ClassLoader classLoader, int level) {
+			Thread thread = Thread.currentThread();
+			ClassLoader previousClassLoader = thread.getContextClassLoader();
+			Integer previousDepth = depth.get();
+
+			thread.setContextClassLoader(classLoader);
+			depth.set(level);
+
+			try {
+				create();
+			} finally {
+				depth.set(previousDepth);
+				thread.setContextClassLoader(previousClassLoader);
+			}
+		}
+
+		/**
+		 * Wait for the instance to be constructed, constructing it in this thread if nobody has started yet.
+		 * Fails instead of waiting forever if the builder is directly or indirectly waiting for a component
+		 * being constructed by this thread.
+		 */
+		Component awaitCreated() {
+			if (!created.isDone())
+				create();
+
+			if (!created.isDone()) {
+				Thread current = Thread.currentThread();
 
-		injectables.add(type);
+				// Register before following the chain, so of two threads that start waiting for each other
+				// at the same time, at least one sees the other and fails instead of both waiting forever
+				waiting.put(current, this);
 
-		Requires requires = type.getAnnotation(Requires.class);
-		if (requires != null)
-			for (Class<? extends Component> dependency : requires.value())
-				scanForInjectables(injectables, dependency);
+				try {
+					ComponentRef ref = this;
 
-		for (Field field : type.getDeclaredFields()) {
-			Inject inject = field.getAnnotation(Inject.class);
+					for (int i = 0; ref != null && i <= waiting.size(); i++) {
+						Thread refBuilder = ref.builder.get();
 
-			if (inject != null && Component.class.isAssignableFrom(field.getType())) {
-				Class<? extends Component> fieldType = (Class<? extends Component>) field.getType();
-				scanForInjectables(injectables, fieldType);
-				injectables.add(fieldType);
+						if (refBuilder == current)
+							throw new IllegalStateException(String.format("Cyclic dependency while creating %s", type.getName()));
+
+						ref = refBuilder == null ? null : waiting.get(refBuilder);
+					}
+
+					return join(created);
+				} finally {
+					waiting.remove(current);
+				}
 			}
+
+			return join(created);
+		}
+
+		/**
+		 * Called by the owner when it is done with the component. Threads waiting for the component are released,
+		 * and a singleton that could not be created is removed so a later lookup can try again.
+		 */
+		void release() {
+			if (created.isDone() && !created.isCompletedExceptionally())
+				initialized.complete(created.join());
+			else
+				fail(new IllegalStateException(String.format("Creation of %s was aborted", type.getName())));
 		}
-	}
 
-}
\ No newline at end of file
+		void fail(Throwable error) {
+			if (singleton)
+				singletons.remove(type, this);
+
+			created.completeExceptionally(error);
+			initialized.completeExceptionally(error);
+		}
+	}
+}
@@ -0,0 +1,507 @@
+package tornadofx;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.json.*;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParser;
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * JsonCodec that parses and generates JSON with the Jackson streaming core instead of the JSON-P provider.
+ * Documents are built from the Jackson tokens as {@link JsonTree} values, without going through the
+ * JSON-P provider. Numbers keep the long or the text Jackson read, so most of them never become a
+ * BigDecimal. Requires com.fasterxml.jackson.core:jackson-core on the classpath.
+ */
+class JacksonJsonCodec implements JsonCodec {
+	private final JsonFactory factory = new JsonFactory();
+
+	public JsonStructure read(Reader reader) {
+		try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(reader)) {
+			JsonToken token = parser.nextToken();
+
+			if (token == null)
+				throw new JsonException("No JSON object or array in empty input");
+
+			if (token == JsonToken.START_OBJECT)
+				return readObject(parser);
+			else if (token == JsonToken.START_ARRAY)
+				return readArray(parser);
+
+			throw new JsonException("Expected a JSON object or array, found " + token);
+		} catch (IOException ex) {
+			throw new JsonException(ex.getMessage(), ex);
+		}
+	}
+
+	private static JsonObject readObject(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+		JsonTree.ObjectBuilder builder = new JsonTree.ObjectBuilder();
+
+		for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+			if (token == JsonToken.END_OBJECT)
+				return builder.build();
+
+			String key = parser.getCurrentName();
+			builder.add(key, readValue(parser, parser.nextToken()));
+		}
+
+		throw new JsonException("Unexpected end of JSON input while reading object");
+	}
+
+	private static JsonArray readArray(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+		JsonTree.ArrayBuilder builder = new JsonTree.ArrayBuilder();
+
+		for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+			if (token == JsonToken.END_ARRAY)
+				return builder.build();
+
+			builder.add(readValue(parser, token));
+		}
+
+		throw new JsonException("Unexpected end of JSON input while reading array");
+	}
+
+	private static JsonValue readValue(com.fasterxml.jackson.core.JsonParser parser, JsonToken token) throws IOException {
+		if (token == null)
+			throw new JsonException("Unexpected end of JSON input");
+
+		switch (token) {
+			case START_OBJECT:
+				return readObject(parser);
+			case START_ARRAY:
+				return readArray(parser);
+			case VALUE_STRING:
+				return JsonTree.string(parser.getText());
+			case VALUE_NUMBER_INT:
+				NumberType type = parser.getNumberType();
+
+				if (type == NumberType.INT || type == NumberType.LONG)
+					return JsonTree.number(parser.getLongValue());
+
+				return JsonTree.number(parser.getText());
+			case VALUE_NUMBER_FLOAT:
+				return JsonTree.number(parser.getText());
+			case VALUE_TRUE:
+				return JsonValue.TRUE;
+			case VALUE_FALSE:
+				return JsonValue.FALSE;
+			case VALUE_NULL:
+				return JsonValue.NULL;
+			default:
+				throw new JsonException("Unexpected JSON token " + token);
+		}
+	}
+
+	public JsonParser createParser(InputStream in) {
+		try {
+			return new Parser(factory.createParser(in));
+		} catch (IOException ex) {
+			throw new JsonException(ex.getMessage(), ex);
+		}
+	}
+
+	public JsonGenerator createGenerator(OutputStream out) {
+		try {
+			return new Generator(factory.createGenerator(out, JsonEncoding.UTF8));
+		} catch (IOException ex) {
+			throw new JsonException(ex.getMessage(), ex);
+		}
+	}
+
+	public JsonWriter createWriter(OutputStream out) {
+		Generator generator = (Generator) createGenerator(out);
+
+		return new JsonWriter() {
+			public void writeArray(JsonArray array) {
+				generator.write(array);
+			}
+
+			public void writeObject(JsonObject object) {
+				generator.write(object);
+			}
+
+			public void write(JsonStructure value) {
+				generator.write(value);
+			}
+
+			public void close() {
+				generator.close();
+			}
+		};
+	}
+
+	public JsonObjectBuilder createObjectBuilder() {
+		return new JsonTree.ObjectBuilder();
+	}
+
+	public JsonArrayBuilder createArrayBuilder() {
+		return new JsonTree.ArrayBuilder();
+	}
+
+	private interface IOAction {
+		void run() throws IOException;
+	}
+
+	private static void call(IOAction action) {
+		try {
+			action.run();
+		} catch (IOException ex) {
+			throw new JsonException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * JSON-P events on top of Jackson tokens. Like the JSON-P parsers, hasNext only reads ahead at the top
+	 * level, so the value of the current event can be read until next is called.
+	 */
+	private static class Parser implements JsonParser {
+		private final com.fasterxml.jackson.core.JsonParser parser;
+		private JsonToken peeked;
+		private int depth;
+
+		Parser(com.fasterxml.jackson.core.JsonParser parser) {
+			this.parser = parser;
+		}
+
+		public boolean hasNext() {
+			if (depth > 0)
+				return true;
+
+			if (peeked == null)
+				peeked = nextToken();
+
+			return peeked != null;
+		}
+
+		public Event next() {
+			JsonToken token = peeked != null ? peeked : nextToken();
+			peeked = null;
+
+			if (token == null)
+				throw new NoSuchElementException("No more JSON events");
+
+			switch (token) {
+				case START_OBJECT:
+					depth++;
+					return Event.START_OBJECT;
+				case START_ARRAY:
+					depth++;
+					return Event.START_ARRAY;
+				case END_OBJECT:
+					depth--;
+					return Event.END_OBJECT;
+				case END_ARRAY:
+					depth--;
+					return Event.END_ARRAY;
+				case FIELD_NAME:
+					return Event.KEY_NAME;
+				case VALUE_STRING:
+					return Event.VALUE_STRING;
+				case VALUE_NUMBER_INT:
+				case VALUE_NUMBER_FLOAT:
+					return Event.VALUE_NUMBER;
+				case VALUE_TRUE:
+					return Event.VALUE_TRUE;
+				case VALUE_FALSE:
+					return Event.VALUE_FALSE;
+				case VALUE_NULL:
+					return Event.VALUE_NULL;
+				default:
+					throw new JsonException("Unexpected JSON token " + token);
+			}
+		}
+
+		private JsonToken nextToken() {
+			try {
+				return parser.nextToken();
+			} catch (IOException ex) {
+				throw new JsonException(ex.getMessage(), ex);
+			}
+		}
+
+		public String getString() {
+			try {
+				return parser.getText();
+			} catch (IOException ex) {
+				throw new JsonException(ex.getMessage(), ex);
+			}
+		}
+
+		public boolean isIntegralNumber() {
+			return parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT;
+		}
+
+		public int getInt() {
+			try {
+				return parser.getIntValue();
+			} catch (IOException ex) {
+				throw new JsonException(ex.getMessage(), ex);
+			}
+		}
+
+		public long getLong() {
+			try {
+				return parser.getLongValue();
+			} catch (IOException ex) {
+				throw new JsonException(ex.getMessage(), ex);
+			}
+		}
+
+		public BigDecimal getBigDecimal() {
+			try {
+				return parser.getDecimalValue();
+			} catch (IOException ex) {
+				throw new JsonException(ex.getMessage(), ex);
+			}
+		}
+
+		public JsonLocation getLocation() {
+			com.fasterxml.jackson.core.JsonLocation location = parser.getCurrentLocation();
+
+			return new JsonLocation() {
+				public long getLineNumber() {
+					return location.getLineNr();
+				}
+
+				public long getColumnNumber() {
+					return location.getColumnNr();
+				}
+
+				public long getStreamOffset() {
+					return location.getCharOffset() >= 0 ? location.getCharOffset() : location.getByteOffset();
+				}
+			};
+		}
+
+		public void close() {
+			call(parser::close);
+		}
+	}
+
+	/**
+	 * JSON-P generator calls on top of a Jackson generator
+	 */
+	private static class Generator implements JsonGenerator {
+		private final com.fasterxml.jackson.core.JsonGenerator generator;
+
+		Generator(com.fasterxml.jackson.core.JsonGenerator generator) {
+			this.generator = generator;
+		}
+
+		public JsonGenerator writeStartObject() {
+			call(generator::writeStartObject);
+			return this;
+		}
+
+		public JsonGenerator writeStartObject(String name) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeStartObject();
+			});
+			return this;
+		}
+
+		public JsonGenerator writeStartArray() {
+			call(generator::writeStartArray);
+			return this;
+		}
+
+		public JsonGenerator writeStartArray(String name) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeStartArray();
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, JsonValue value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				writeValue(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, String value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeString(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, BigInteger value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNumber(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, BigDecimal value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNumber(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, int value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNumber(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, long value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNumber(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, double value) {
+			requireFinite(value);
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNumber(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator write(String name, boolean value) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeBoolean(value);
+			});
+			return this;
+		}
+
+		public JsonGenerator writeNull(String name) {
+			call(() -> {
+				generator.writeFieldName(name);
+				generator.writeNull();
+			});
+			return this;
+		}
+
+		public JsonGenerator writeEnd() {
+			call(() -> {
+				if (generator.getOutputContext().inArray())
+					generator.writeEndArray();
+				else
+					generator.writeEndObject();
+			});
+			return this;
+		}
+
+		public JsonGenerator write(JsonValue value) {
+			call(() -> writeValue(value));
+			return this;
+		}
+
+		public JsonGenerator write(String value) {
+			call(() -> generator.writeString(value));
+			return this;
+		}
+
+		public JsonGenerator write(BigDecimal value) {
+			call(() -> generator.writeNumber(value));
+			return this;
+		}
+
+		public JsonGenerator write(BigInteger value) {
+			call(() -> generator.writeNumber(value));
+			return this;
+		}
+
+		public JsonGenerator write(int value) {
+			call(() -> generator.writeNumber(value));
+			return this;
+		}
+
+		public JsonGenerator write(long value) {
+			call(() -> generator.writeNumber(value));
+			return this;
+		}
+
+		public JsonGenerator write(double value) {
+			requireFinite(value);
+			call(() -> generator.writeNumber(value));
+			return this;
+		}
+
+		public JsonGenerator write(boolean value) {
+			call(() -> generator.writeBoolean(value));
+			return this;
+		}
+
+		public JsonGenerator writeNull() {
+			call(generator::writeNull);
+			return this;
+		}
+
+		public void close() {
+			call(generator::close);
+		}
+
+		public void flush() {
+			call(generator::flush);
+		}
+
+		private void writeValue(JsonValue value) throws IOException {
+			switch (value.getValueType()) {
+				case OBJECT:
+					generator.writeStartObject();
+					for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+						generator.writeFieldName(entry.getKey());
+						writeValue(entry.getValue());
+					}
+					generator.writeEndObject();
+					break;
+				case ARRAY:
+					generator.writeStartArray();
+					for (JsonValue element : (JsonArray) value)
+						writeValue(element);
+					generator.writeEndArray();
+					break;
+				case STRING:
+					generator.writeString(((JsonString) value).getString());
+					break;
+				case NUMBER:
+					if (value instanceof JsonTree.LongNumber)
+						generator.writeNumber(((JsonNumber) value).longValue());
+					else
+						generator.writeNumber(((JsonNumber) value).bigDecimalValue());
+					break;
+				case TRUE:
+					generator.writeBoolean(true);
+					break;
+				case FALSE:
+					generator.writeBoolean(false);
+					break;
+				case NULL:
+					generator.writeNull();
+					break;
+			}
+		}
+
+		/**
+		 * JSON has no NaN or infinity, the JSON-P generators reject them as well
+		 */
+		private static void requireFinite(double value) {
+			if (Double.isNaN(value) || Double.isInfinite(value))
+				throw new NumberFormatException(String.format("%s is not a valid JSON number", value));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package tornadofx;
+
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+
+/**
+ * Creates the JSON readers, parsers, writers and builders used by Rest and JsonModel.
+ * <p/>
+ * The static javax.json.Json methods look up the JSON-P provider on every call. A codec resolves
+ * the provider and its factories once and reuses them. Use {@link #of(JsonProvider)} to run on
+ * a faster JSON-P implementation than the one found on the classpath, {@link #jackson()} to parse
+ * and generate with Jackson, or implement the interface to plug in another JSON library.
+ *
+ * @see Rest#setCodec(JsonCodec)
+ */
+public interface JsonCodec {
+	/**
+	 * Read a complete JSON object or array
+	 */
+	JsonStructure read(Reader reader);
+
+	/**
+	 * A streaming parser for the input. The encoding is detected from the input.
+	 */
+	JsonParser createParser(InputStream in);
+
+	JsonGenerator createGenerator(OutputStream out);
+
+	JsonWriter createWriter(OutputStream out);
+
+	JsonObjectBuilder createObjectBuilder();
+
+	JsonArrayBuilder createArrayBuilder();
+
+	/**
+	 * @return A codec that uses the given JSON-P provider
+	 */
+	static JsonCodec of(JsonProvider provider) {
+		return new ProviderJsonCodec(provider);
+	}
+
+	/**
+	 * @return A codec that parses and generates with the Jackson streaming core and builds documents without the
+	 * JSON-P provider. Requires com.fasterxml.jackson.core:jackson-core, which is an optional dependency of TornadoFX.
+	 */
+	static JsonCodec jackson() {
+		return new JacksonJsonCodec();
+	}
+
+	/**
+	 * @return The codec used by JsonModel, and by Rest instances without a codec of their own
+	 */
+	static JsonCodec getDefault() {
+		return ProviderJsonCodec.defaultCodec;
+	}
+
+	static void setDefault(JsonCodec codec) {
+		ProviderJsonCodec.defaultCodec = codec;
+	}
+}
@@ -0,0 +1,185 @@
+package tornadofx;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import java.io.*;
+import java.util.function.Consumer;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body that writes JSON straight into the connection, compressed on the fly if requested.
+ * The body is produced again for every write, so the entity is repeatable and never holds the
+ * serialized payload. The length is not known up front, so the body is sent chunked. Bodies that are
+ * sent uncompressed are serialized to memory instead, unless chunked requests are enabled.
+ * <p/>
+ * The body is a JsonStructure, JSON that was already serialized, or a function that writes the JSON with
+ * a generator, which lets models and collections of models be streamed without building a JsonStructure first.
+ */
+class JsonEntity extends AbstractHttpEntity {
+	private final JsonStructure data;
+	private final byte[] content;
+	private final Consumer<JsonGenerator> body;
+	private final Compression compression;
+	private final JsonCodec codec;
+
+	JsonEntity(JsonStructure data, Compression compression, JsonCodec codec) {
+		this(data, null, null, compression, codec);
+	}
+
+	JsonEntity(byte[] content, Compression compression, JsonCodec codec) {
+		this(null, content, null, compression, codec);
+	}
+
+	JsonEntity(Consumer<JsonGenerator> body, Compression compression, JsonCodec codec) {
+		this(null, null, body, compression, codec);
+	}
+
+	private JsonEntity(JsonStructure data, byte[] content, Consumer<JsonGenerator> body, Compression compression, JsonCodec codec) {
+		this.data = data;
+		this.content = content;
+		this.body = body;
+		this.compression = compression;
+		this.codec = codec;
+		setContentType("application/json; charset=UTF-8");
+		setContentEncoding(compression.getContentEncoding());
+		setChunked(true);
+	}
+
+	/**
+	 * Serialize the whole body into memory, uncompressed, so it can be sent with a known length
+	 */
+	byte[] serialize() throws IOException {
+		if (content != null)
+			return content;
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+		write(buffer);
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Serialize JSON written by a generator into memory, in the calling thread
+	 */
+	static byte[] serialize(JsonCodec codec, Consumer<JsonGenerator> body) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+		try (JsonGenerator generator = codec.createGenerator(buffer)) {
+			body.accept(generator);
+		}
+
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Serialize the body into memory as long as it fits within the given number of bytes. Used to decide if a
+	 * body is worth compressing, without ever serializing more than the limit.
+	 *
+	 * @return The uncompressed body, or null if it is larger than the limit
+	 */
+	byte[] serializeWithin(int limit) throws IOException {
+		LimitedBuffer buffer = new LimitedBuffer(limit);
+
+		try {
+			write(buffer);
+		} catch (LimitExceeded ex) {
+			return null;
+		}
+
+		return buffer.toByteArray();
+	}
+
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	public long getContentLength() {
+		return -1;
+	}
+
+	public boolean isStreaming() {
+		return false;
+	}
+
+	/**
+	 * Clients that read the body instead of writing it, like the async client, get the encoded body from memory
+	 */
+	public InputStream getContent() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		writeTo(buffer);
+		return new ByteArrayInputStream(buffer.toByteArray());
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		OutputStream target = new FilterOutputStream(out) {
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			// The connection owns the stream, closing the writer must only finish the body
+			public void close() throws IOException {
+				flush();
+			}
+		};
+
+		if (compression == Compression.GZIP)
+			target = new GZIPOutputStream(target, 8192);
+		else if (compression == Compression.DEFLATE)
+			target = new DeflaterOutputStream(target);
+
+		try (OutputStream body = target) {
+			write(body);
+		}
+	}
+
+	/**
+	 * Write the JSON body to the given, possibly compressing, stream
+	 */
+	private void write(OutputStream out) throws IOException {
+		if (content != null) {
+			out.write(content);
+		} else if (data != null) {
+			try (JsonWriter writer = codec.createWriter(out)) {
+				writer.write(data);
+			}
+		} else {
+			try (JsonGenerator generator = codec.createGenerator(out)) {
+				body.accept(generator);
+			}
+		}
+	}
+
+	private static class LimitedBuffer extends ByteArrayOutputStream {
+		private final int limit;
+
+		LimitedBuffer(int limit) {
+			super(Math.min(limit, 8192));
+			this.limit = limit;
+		}
+
+		public synchronized void write(int b) {
+			if (count + 1 > limit)
+				throw LimitExceeded.INSTANCE;
+
+			super.write(b);
+		}
+
+		public synchronized void write(byte[] b, int off, int len) {
+			if (count + len > limit)
+				throw LimitExceeded.INSTANCE;
+
+			super.write(b, off, len);
+		}
+	}
+
+	private static class LimitExceeded extends RuntimeException {
+		static final LimitExceeded INSTANCE = new LimitExceeded();
+
+		private LimitExceeded() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package tornadofx;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Map a field of a JsonModel to a JSON property, so the model can rely on the default
+ * updateModel and toJSON implementations. The field can hold a value or a JavaFX property
+ * of a String, number, Boolean, BigDecimal, LocalDate, LocalDateTime, Instant, enum,
+ * nested JsonModel or List of those.
+ */
+@Target({ElementType.FIELD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JsonField {
+	/**
+	 * The name of the JSON property. Defaults to the field name.
+	 */
+	String value() default "";
+}
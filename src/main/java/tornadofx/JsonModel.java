@@ -1,43 +1,90 @@
 package tornadofx;
 
-import javax.json.Json;
-import javax.json.JsonObject;
-import javax.json.JsonObjectBuilder;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import javax.json.*;
+import javax.json.stream.JsonGenerator;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * A model that can be read from and written to JSON. Annotate the fields with @JsonField, or override
+ * updateModel and toJSON to map the properties by hand.
+ * <p/>
+ * Both methods have default implementations, so a model that neither annotates its fields nor overrides
+ * them still compiles. It fails at runtime with an UnsupportedOperationException the first time it is read
+ * or written.
+ */
 @SuppressWarnings("unchecked")
 public interface JsonModel {
 	/**
-	 * Fetch JSON values and update the model properties
+	 * Fetch JSON values and update the model properties. The default implementation updates the fields annotated with @JsonField.
 	 * @param json The json to extract values from
 	 */
-	void updateModel(JsonObject json);
+	default void updateModel(JsonObject json) {
+		JsonModelMapper.of(getClass()).updateModel(this, json);
+	}
 
 	/**
-	 * Build a JSON representation of the model properties
+	 * Build a JSON representation of the model properties. The default implementation adds the fields annotated with @JsonField.
 	 * @param builder A builder that should be filled with the model properties
 	 */
-	void toJSON(JsonObjectBuilder builder);
+	default void toJSON(JsonObjectBuilder builder) {
+		JsonModelMapper.of(getClass()).toJSON(this, builder);
+	}
+
+	/**
+	 * Write the model as a JSON object to the generator. Used when the model is sent as a request body,
+	 * so it goes straight into the HTTP stream. If toJSON is not overridden, the default implementation
+	 * writes the @JsonField fields directly to the generator. Otherwise it writes the properties added
+	 * by toJSON. Override it to write the properties directly and skip the intermediate JsonObject.
+	 * @param generator The generator to write the object to, positioned where a value is expected
+	 */
+	default void writeJSON(JsonGenerator generator) {
+		JsonModelMapper mapper = JsonModelMapper.of(getClass());
+
+		if (mapper.canWriteFields()) {
+			mapper.writeJSON(this, generator);
+			return;
+		}
+
+		JsonObjectBuilder builder = JsonCodec.getDefault().createObjectBuilder();
+		toJSON(builder);
+
+		generator.writeStartObject();
+		builder.build().forEach(generator::write);
+		generator.writeEnd();
+	}
 
 	/**
 	 * Copy all properties from this object to the given target object by converting to JSON and then updating the target.
+	 * Models of the same type that are mapped with @JsonField only are copied field by field instead.
 	 * @param target The target object to update with the properties of this model
 	 */
 	default void copy(JsonModel target) {
-		JsonObjectBuilder builder = Json.createObjectBuilder();
-		toJSON(builder);
-		target.updateModel(builder.build());
+		JsonModelMapper mapper = JsonModelMapper.of(getClass());
+
+		if (target.getClass() == getClass() && mapper.canCopyFields()) {
+			mapper.copy(this, target);
+		} else {
+			JsonObjectBuilder builder = JsonCodec.getDefault().createObjectBuilder();
+			toJSON(builder);
+			target.updateModel(builder.build());
+		}
 	}
 
 	/**
 	 * Copy all properties from the given source object to this object by converting to JSON and then updating this object.
+	 * Models of the same type that are mapped with @JsonField only are copied field by field instead.
 	 * @param source The source object to extract properties from
 	 */
 	default void update(JsonModel source) {
-		JsonObjectBuilder builder = Json.createObjectBuilder();
-		source.toJSON(builder);
-		updateModel(builder.build());
+		source.copy(this);
 	}
 
 	/**
@@ -47,28 +94,156 @@ public interface JsonModel {
 	 * @return A new object of type T with the model properties of this object
 	 */
 	default <T extends JsonModel> T copy() {
-		try {
-			T clone = (T) getClass().newInstance();
-			JsonObjectBuilder builder = Json.createObjectBuilder();
-			toJSON(builder);
-			clone.updateModel(builder.build());
-			return clone;
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new RuntimeException(e);
-		}
+		T clone = (T) ReflectionTools.create(getClass());
+		copy(clone);
+		return clone;
 	}
 
-	default double getDouble(JsonObject json, String key, double defaultValue) {
-		return json.containsKey(key) ? json.getJsonNumber(key).doubleValue() : defaultValue;
+	/**
+	 * Remember the current state of the model as the state known by the server, e.g. after it was saved.
+	 * Models are also marked clean when they are merged with JsonArrayResult.merge.
+	 */
+	default void markClean() {
+		JsonModelTracker.markClean(this);
+	}
+
+	/**
+	 * @return True if any property differs from the state known by the server
+	 */
+	default boolean isDirty() {
+		return !getChanges().isEmpty();
+	}
+
+	/**
+	 * The properties written by toJSON that differ from the state known by the server. If that state is not known,
+	 * all properties are returned. Send them with JsonCall.changes to update only what changed.
+	 * @return A JSON object with the changed properties
+	 */
+	default JsonObject getChanges() {
+		return JsonModelTracker.getChanges(this);
+	}
+
+	// Accessors for use in updateModel. Each looks the key up once and returns the default value
+	// if the key is missing, null or holds a value of another type. Documents read by a JsonCodec hold
+	// integral numbers as int or long and other numbers as their text, so getInt, getLong and getDouble
+	// read them without a BigDecimal. JSON built elsewhere may still hold BigDecimal-backed numbers.
+
+	default int getInt(JsonObject json, String key, int defaultValue) {
+		JsonValue value = json.get(key);
+		return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
 	}
 
 	default long getLong(JsonObject json, String key, long defaultValue) {
-		return json.containsKey(key) ? json.getJsonNumber(key).longValue() : defaultValue;
+		JsonValue value = json.get(key);
+		return value instanceof JsonNumber ? ((JsonNumber) value).longValue() : defaultValue;
+	}
+
+	default double getDouble(JsonObject json, String key, double defaultValue) {
+		JsonValue value = json.get(key);
+		return value instanceof JsonNumber ? ((JsonNumber) value).doubleValue() : defaultValue;
+	}
+
+	default boolean getBoolean(JsonObject json, String key, boolean defaultValue) {
+		JsonValue value = json.get(key);
+
+		if (value == JsonValue.TRUE)
+			return true;
+		else if (value == JsonValue.FALSE)
+			return false;
+		else
+			return defaultValue;
+	}
+
+	default String getString(JsonObject json, String key, String defaultValue) {
+		JsonValue value = json.get(key);
+		return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
 	}
 
 	default LocalDate getLocalDate(JsonObject json, String key, LocalDate defaultValue) {
-		return json.containsKey(key) ? LocalDate.parse(json.getString(key)) : defaultValue;
+		String text = getString(json, key, null);
+		return text != null ? LocalDate.parse(text) : defaultValue;
+	}
+
+	/**
+	 * @param pattern A DateTimeFormatter pattern. The formatter is created once per pattern.
+	 */
+	default LocalDate getLocalDate(JsonObject json, String key, String pattern, LocalDate defaultValue) {
+		String text = getString(json, key, null);
+		return text != null ? LocalDate.parse(text, JsonValues.formatter(pattern)) : defaultValue;
+	}
+
+	default LocalDateTime getLocalDateTime(JsonObject json, String key, LocalDateTime defaultValue) {
+		String text = getString(json, key, null);
+		return text != null ? LocalDateTime.parse(text) : defaultValue;
+	}
+
+	/**
+	 * @param pattern A DateTimeFormatter pattern. The formatter is created once per pattern.
+	 */
+	default LocalDateTime getLocalDateTime(JsonObject json, String key, String pattern, LocalDateTime defaultValue) {
+		String text = getString(json, key, null);
+		return text != null ? LocalDateTime.parse(text, JsonValues.formatter(pattern)) : defaultValue;
+	}
+
+	/**
+	 * Read an ISO-8601 instant, or a number of milliseconds since the epoch
+	 */
+	default Instant getInstant(JsonObject json, String key, Instant defaultValue) {
+		JsonValue value = json.get(key);
+
+		if (value instanceof JsonString)
+			return Instant.parse(((JsonString) value).getString());
+		else if (value instanceof JsonNumber)
+			return Instant.ofEpochMilli(((JsonNumber) value).longValue());
+		else
+			return defaultValue;
 	}
 
+	/**
+	 * @return The constant named by the value, or the default value if there is no such constant
+	 */
+	default <E extends Enum<E>> E getEnum(JsonObject json, String key, Class<E> type, E defaultValue) {
+		String text = getString(json, key, null);
+		E constant = text != null ? JsonValues.enumConstant(type, text) : null;
+		return constant != null ? constant : defaultValue;
+	}
+
+	/**
+	 * @return A new model updated from the nested object, or null if there is none
+	 */
+	default <M extends JsonModel> M getModel(JsonObject json, String key, Class<M> type) {
+		JsonValue value = json.get(key);
+
+		if (!(value instanceof JsonObject))
+			return null;
+
+		M model = ReflectionTools.create(type);
+		model.updateModel((JsonObject) value);
+		return model;
+	}
+
+	/**
+	 * @return New models updated from the objects in the nested array. The list is empty if there is no array.
+	 */
+	default <M extends JsonModel> ObservableList<M> getModelList(JsonObject json, String key, Class<M> type) {
+		JsonValue value = json.get(key);
+		ObservableList<M> models = FXCollections.observableArrayList();
+
+		if (value instanceof JsonArray) {
+			JsonArray array = (JsonArray) value;
+			Supplier<M> constructor = ReflectionTools.constructor(type);
+			List<M> list = new ArrayList<>(array.size());
+
+			for (int i = 0; i < array.size(); i++) {
+				M model = constructor.get();
+				model.updateModel(array.getJsonObject(i));
+				list.add(model);
+			}
+
+			models.setAll(list);
+		}
+
+		return models;
+	}
 
 }
@@ -0,0 +1,482 @@
+package tornadofx;
+
+import javafx.beans.property.*;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WritableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import javax.json.*;
+import javax.json.stream.JsonGenerator;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Per class mapping between the @JsonField fields of a JsonModel and JSON. Built once per class with
+ * method handles for the fields, and used for the default updateModel, toJSON and writeJSON implementations.
+ * Models that do not override toJSON are written straight to a generator, without building a JsonObject.
+ * <p/>
+ * Models that rely entirely on the mapping can also be copied field by field, without the JSON
+ * round trip JsonModel.copy otherwise makes. Nested models and lists are copied deeply, the same
+ * way the round trip would, and JavaFX properties keep their identity so bindings survive a copy.
+ */
+@SuppressWarnings("unchecked")
+final class JsonModelMapper {
+	private static final ClassValue<JsonModelMapper> mappers = new ClassValue<JsonModelMapper>() {
+		protected JsonModelMapper computeValue(Class<?> type) {
+			return new JsonModelMapper(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final List<Mapping> mappings = new ArrayList<>();
+	private final boolean fieldCopy;
+	private final boolean fieldWrite;
+
+	private JsonModelMapper(Class<?> type) {
+		this.type = type;
+
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+			hierarchy.add(c);
+		Collections.reverse(hierarchy);
+
+		for (Class<?> c : hierarchy)
+			for (Field field : c.getDeclaredFields())
+				if (field.isAnnotationPresent(JsonField.class) && !Modifier.isStatic(field.getModifiers()))
+					mappings.add(new Mapping(field));
+
+		fieldWrite = !mappings.isEmpty() && isDefault("toJSON", JsonObjectBuilder.class);
+		fieldCopy = fieldWrite && isDefault("updateModel", JsonObject.class);
+	}
+
+	static JsonModelMapper of(Class<?> type) {
+		return mappers.get(type);
+	}
+
+	/**
+	 * @return True if the model is mapped by @JsonField fields only, so copying the fields is the same as a JSON round trip
+	 */
+	boolean canCopyFields() {
+		return fieldCopy;
+	}
+
+	void updateModel(JsonModel model, JsonObject json) {
+		requireMappings("updateModel");
+
+		for (Mapping mapping : mappings) {
+			JsonValue value = json.get(mapping.key);
+
+			if (value != null)
+				mapping.set(model, value.getValueType() == JsonValue.ValueType.NULL ? null : mapping.codec.read(value));
+		}
+	}
+
+	void toJSON(JsonModel model, JsonObjectBuilder builder) {
+		requireMappings("toJSON");
+
+		for (Mapping mapping : mappings) {
+			Object value = mapping.get(model);
+
+			if (value != null)
+				mapping.codec.write(builder, mapping.key, value);
+		}
+	}
+
+	/**
+	 * @return True if toJSON writes the @JsonField fields only, so they can be written to a generator directly
+	 */
+	boolean canWriteFields() {
+		return fieldWrite;
+	}
+
+	/**
+	 * Write the mapped fields as a JSON object to the generator, positioned where a value is expected
+	 */
+	void writeJSON(JsonModel model, JsonGenerator generator) {
+		generator.writeStartObject();
+		writeFields(model, generator);
+		generator.writeEnd();
+	}
+
+	private void writeFields(JsonModel model, JsonGenerator generator) {
+		for (Mapping mapping : mappings) {
+			Object value = mapping.get(model);
+
+			if (value != null)
+				mapping.codec.write(generator, mapping.key, value);
+		}
+	}
+
+	void copy(JsonModel source, JsonModel target) {
+		for (Mapping mapping : mappings) {
+			Object value = mapping.get(source);
+
+			// toJSON leaves null values out, so the round trip keeps the value of the target
+			if (value != null)
+				mapping.set(target, mapping.codec.copy(value));
+		}
+	}
+
+	private void requireMappings(String method) {
+		if (mappings.isEmpty())
+			throw new UnsupportedOperationException(String.format("%s must implement %s or annotate its fields with @JsonField", type.getName(), method));
+	}
+
+	private boolean isDefault(String name, Class<?> parameterType) {
+		try {
+			return type.getMethod(name, parameterType).isDefault();
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	private static class Mapping {
+		private final String key;
+		private final Codec codec;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final boolean property;
+		private final boolean primitive;
+		private final boolean observableList;
+
+		Mapping(Field field) {
+			String name = field.getAnnotation(JsonField.class).value();
+			this.key = name.isEmpty() ? field.getName() : name;
+
+			if (!field.isAccessible())
+				field.setAccessible(true);
+
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+				setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (IllegalAccessException ex) {
+				throw new RuntimeException(ex);
+			}
+
+			Class<?> fieldType = field.getType();
+			property = Property.class.isAssignableFrom(fieldType);
+			primitive = fieldType.isPrimitive();
+
+			Class<?> valueType;
+			Type genericValueType;
+
+			if (property) {
+				valueType = propertyValueType(fieldType);
+				genericValueType = valueType == null ? typeArgument(field.getGenericType(), 0) : valueType;
+
+				if (ListProperty.class.isAssignableFrom(fieldType)) {
+					valueType = List.class;
+					genericValueType = field.getGenericType();
+				} else if (valueType == null) {
+					valueType = rawType(genericValueType);
+				}
+			} else {
+				valueType = fieldType;
+				genericValueType = field.getGenericType();
+			}
+
+			observableList = ObservableList.class.isAssignableFrom(fieldType) || ListProperty.class.isAssignableFrom(fieldType) || ObservableList.class.isAssignableFrom(valueType);
+
+			codec = codecFor(valueType, genericValueType, field);
+		}
+
+		Object get(Object model) {
+			try {
+				Object value = getter.invokeExact(model);
+				return property ? ((ObservableValue<?>) value).getValue() : value;
+			} catch (RuntimeException | Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+
+		void set(Object model, Object value) {
+			try {
+				if (value instanceof List) {
+					Object current = getter.invokeExact(model);
+					if (property)
+						current = ((ObservableValue<?>) current).getValue();
+
+					// Fill lists in place when the model owns the list instance, so listeners stay attached
+					if (current instanceof ObservableList) {
+						((ObservableList<Object>) current).setAll((List<Object>) value);
+						return;
+					} else if (current instanceof List && setter == null && !property) {
+						((List<Object>) current).clear();
+						((List<Object>) current).addAll((List<Object>) value);
+						return;
+					}
+
+					if (observableList)
+						value = FXCollections.observableArrayList((List<Object>) value);
+				}
+
+				if (property) {
+					Object target = getter.invokeExact(model);
+					((WritableValue<Object>) target).setValue(value);
+				} else if (setter != null && !(value == null && primitive)) {
+					setter.invokeExact(model, value);
+				}
+			} catch (RuntimeException | Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+
+		private static Class<?> propertyValueType(Class<?> propertyType) {
+			if (StringProperty.class.isAssignableFrom(propertyType))
+				return String.class;
+			if (IntegerProperty.class.isAssignableFrom(propertyType))
+				return Integer.class;
+			if (LongProperty.class.isAssignableFrom(propertyType))
+				return Long.class;
+			if (DoubleProperty.class.isAssignableFrom(propertyType))
+				return Double.class;
+			if (FloatProperty.class.isAssignableFrom(propertyType))
+				return Float.class;
+			if (BooleanProperty.class.isAssignableFrom(propertyType))
+				return Boolean.class;
+			return null;
+		}
+	}
+
+	private static Type typeArgument(Type type, int index) {
+		if (type instanceof ParameterizedType)
+			return ((ParameterizedType) type).getActualTypeArguments()[index];
+
+		return Object.class;
+	}
+
+	private static Class<?> rawType(Type type) {
+		if (type instanceof Class)
+			return (Class<?>) type;
+		if (type instanceof ParameterizedType)
+			return (Class<?>) ((ParameterizedType) type).getRawType();
+		if (type instanceof WildcardType)
+			return rawType(((WildcardType) type).getUpperBounds()[0]);
+
+		return Object.class;
+	}
+
+	private static Codec codecFor(Class<?> type, Type genericType, Field field) {
+		if (type == String.class)
+			return new Codec(v -> ((JsonString) v).getString(), (b, k, v) -> b.add(k, (String) v), (b, v) -> b.add((String) v),
+				(g, k, v) -> { if (k == null) g.write((String) v); else g.write(k, (String) v); });
+
+		if (type == Integer.class || type == int.class)
+			return new Codec(v -> ((JsonNumber) v).intValue(), (b, k, v) -> b.add(k, ((Number) v).intValue()), (b, v) -> b.add(((Number) v).intValue()),
+				(g, k, v) -> { if (k == null) g.write(((Number) v).intValue()); else g.write(k, ((Number) v).intValue()); });
+
+		if (type == Long.class || type == long.class)
+			return new Codec(v -> ((JsonNumber) v).longValue(), (b, k, v) -> b.add(k, ((Number) v).longValue()), (b, v) -> b.add(((Number) v).longValue()),
+				(g, k, v) -> { if (k == null) g.write(((Number) v).longValue()); else g.write(k, ((Number) v).longValue()); });
+
+		if (type == Double.class || type == double.class)
+			return new Codec(v -> ((JsonNumber) v).doubleValue(), (b, k, v) -> b.add(k, ((Number) v).doubleValue()), (b, v) -> b.add(((Number) v).doubleValue()),
+				Codec::writeDouble);
+
+		if (type == Float.class || type == float.class)
+			return new Codec(v -> (float) ((JsonNumber) v).doubleValue(), (b, k, v) -> b.add(k, ((Number) v).doubleValue()), (b, v) -> b.add(((Number) v).doubleValue()),
+				Codec::writeDouble);
+
+		if (type == Boolean.class || type == boolean.class)
+			return new Codec(v -> v.getValueType() == JsonValue.ValueType.TRUE, (b, k, v) -> b.add(k, (Boolean) v), (b, v) -> b.add((Boolean) v),
+				(g, k, v) -> { if (k == null) g.write((Boolean) v); else g.write(k, (Boolean) v); });
+
+		if (type == BigDecimal.class)
+			return new Codec(v -> ((JsonNumber) v).bigDecimalValue(), (b, k, v) -> b.add(k, (BigDecimal) v), (b, v) -> b.add((BigDecimal) v),
+				(g, k, v) -> { if (k == null) g.write((BigDecimal) v); else g.write(k, (BigDecimal) v); });
+
+		if (type == LocalDate.class)
+			return textCodec(LocalDate::parse);
+
+		if (type == LocalDateTime.class)
+			return textCodec(LocalDateTime::parse);
+
+		if (type == Instant.class)
+			return textCodec(Instant::parse);
+
+		// Unknown constants read as null, like JsonModel.getEnum does
+		if (type.isEnum())
+			return textCodec(text -> JsonValues.enumConstant((Class) type, text));
+
+		if (JsonModel.class.isAssignableFrom(type)) {
+			Supplier<?> constructor = ReflectionTools.constructor(type);
+
+			return new Codec(v -> {
+				JsonModel model = (JsonModel) constructor.get();
+				model.updateModel((JsonObject) v);
+				return model;
+			}, (b, k, v) -> b.add(k, toJSON((JsonModel) v)), (b, v) -> b.add(toJSON((JsonModel) v)), JsonModelMapper::writeModel) {
+				Object copy(Object value) {
+					return value == null ? null : ((JsonModel) value).copy();
+				}
+			};
+		}
+
+		if (List.class.isAssignableFrom(type)) {
+			Type elementType = typeArgument(genericType, 0);
+			Codec element = codecFor(rawType(elementType), elementType, field);
+
+			return new Codec(v -> {
+				JsonArray array = (JsonArray) v;
+				List<Object> list = new ArrayList<>(array.size());
+				for (JsonValue value : array)
+					list.add(value.getValueType() == JsonValue.ValueType.NULL ? null : element.read(value));
+				return list;
+			}, (b, k, v) -> b.add(k, toJSON(element, (List<?>) v)), (b, v) -> b.add(toJSON(element, (List<?>) v)), (g, k, v) -> writeList(g, k, element, (List<?>) v)) {
+				Object copy(Object value) {
+					if (value == null)
+						return null;
+
+					List<Object> list = new ArrayList<>(((List<?>) value).size());
+					for (Object item : (List<?>) value)
+						list.add(element.copy(item));
+					return list;
+				}
+			};
+		}
+
+		throw new IllegalArgumentException(String.format("Unsupported @JsonField type %s on %s.%s", genericType.getTypeName(), field.getDeclaringClass().getName(), field.getName()));
+	}
+
+	private static Codec textCodec(Function<String, Object> parser) {
+		return new Codec(v -> parser.apply(((JsonString) v).getString()), (b, k, v) -> b.add(k, v.toString()), (b, v) -> b.add(v.toString()),
+			(g, k, v) -> { if (k == null) g.write(v.toString()); else g.write(k, v.toString()); });
+	}
+
+	private static JsonObjectBuilder toJSON(JsonModel model) {
+		JsonObjectBuilder builder = JsonCodec.getDefault().createObjectBuilder();
+		model.toJSON(builder);
+		return builder;
+	}
+
+	/**
+	 * A nested model can only be written field by field under a key if its mapper writes it, as JSON-P cannot write a
+	 * key on its own before a custom writeJSON starts the object. Other models under a key are built with toJSON.
+	 */
+	private static void writeModel(JsonGenerator generator, String key, Object value) {
+		JsonModel model = (JsonModel) value;
+
+		if (key == null) {
+			model.writeJSON(generator);
+		} else {
+			JsonModelMapper mapper = of(model.getClass());
+
+			if (mapper.canWriteFields()) {
+				generator.writeStartObject(key);
+				mapper.writeFields(model, generator);
+				generator.writeEnd();
+			} else {
+				generator.write(key, toJSON(model).build());
+			}
+		}
+	}
+
+	private static void writeList(JsonGenerator generator, String key, Codec element, List<?> values) {
+		if (key == null)
+			generator.writeStartArray();
+		else
+			generator.writeStartArray(key);
+
+		for (Object value : values) {
+			if (value == null)
+				generator.writeNull();
+			else
+				element.write(generator, null, value);
+		}
+
+		generator.writeEnd();
+	}
+
+	private static JsonArrayBuilder toJSON(Codec element, List<?> values) {
+		JsonArrayBuilder builder = JsonCodec.getDefault().createArrayBuilder();
+
+		for (Object value : values) {
+			if (value == null)
+				builder.addNull();
+			else
+				element.write(builder, value);
+		}
+
+		return builder;
+	}
+
+	/**
+	 * Converts values of one type from and to JSON. Values are immutable unless copy is overridden.
+	 */
+	private static class Codec {
+		private final Reader reader;
+		private final PropertyWriter propertyWriter;
+		private final ElementWriter elementWriter;
+		private final GeneratorWriter generatorWriter;
+
+		Codec(Reader reader, PropertyWriter propertyWriter, ElementWriter elementWriter, GeneratorWriter generatorWriter) {
+			this.reader = reader;
+			this.propertyWriter = propertyWriter;
+			this.elementWriter = elementWriter;
+			this.generatorWriter = generatorWriter;
+		}
+
+		Object read(JsonValue value) {
+			return reader.read(value);
+		}
+
+		void write(JsonObjectBuilder builder, String key, Object value) {
+			propertyWriter.write(builder, key, value);
+		}
+
+		void write(JsonArrayBuilder builder, Object value) {
+			elementWriter.write(builder, value);
+		}
+
+		void write(JsonGenerator generator, String key, Object value) {
+			generatorWriter.write(generator, key, value);
+		}
+
+		static void writeDouble(JsonGenerator generator, String key, Object value) {
+			if (key == null)
+				generator.write(((Number) value).doubleValue());
+			else
+				generator.write(key, ((Number) value).doubleValue());
+		}
+
+		Object copy(Object value) {
+			return value;
+		}
+	}
+
+	private interface Reader {
+		Object read(JsonValue value);
+	}
+
+	private interface PropertyWriter {
+		void write(JsonObjectBuilder builder, String key, Object value);
+	}
+
+	private interface ElementWriter {
+		void write(JsonArrayBuilder builder, Object value);
+	}
+
+	/**
+	 * Writes a value to a generator, as the property with the given key or as an array element if the key is null
+	 */
+	private interface GeneratorWriter {
+		void write(JsonGenerator generator, String key, Object value);
+	}
+}
@@ -0,0 +1,124 @@
+package tornadofx;
+
+import javax.json.*;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last known server state of JsonModel objects, so changes can be detected and sent on their own.
+ * The state is kept per object identity and is dropped when the model is garbage collected.
+ */
+final class JsonModelTracker {
+	private static final ReferenceQueue<JsonModel> collected = new ReferenceQueue<>();
+	private static final Map<Key, JsonObject> baselines = new HashMap<>();
+
+	private JsonModelTracker() {
+	}
+
+	static synchronized JsonObject getBaseline(JsonModel model) {
+		return baselines.get(new Key(model, null));
+	}
+
+	static synchronized void setBaseline(JsonModel model, JsonObject json) {
+		expunge();
+		baselines.put(new Key(model, collected), json);
+	}
+
+	static void markClean(JsonModel model) {
+		setBaseline(model, snapshot(model));
+	}
+
+	/**
+	 * Fold changes that were sent successfully into the baseline
+	 */
+	static synchronized void commit(JsonModel model, JsonObject changes) {
+		JsonObject baseline = getBaseline(model);
+
+		if (baseline == null) {
+			setBaseline(model, changes);
+		} else {
+			JsonObjectBuilder builder = JsonCodec.getDefault().createObjectBuilder();
+			baseline.forEach(builder::add);
+			changes.forEach(builder::add);
+			setBaseline(model, builder.build());
+		}
+	}
+
+	/**
+	 * @return The properties of the model that differ from the baseline, or all properties if there is no baseline.
+	 * Properties in the baseline that the model no longer writes are returned as null.
+	 */
+	static JsonObject getChanges(JsonModel model) {
+		JsonObject current = snapshot(model);
+		JsonObject baseline = getBaseline(model);
+
+		if (baseline == null)
+			return current;
+
+		JsonObjectBuilder changes = JsonCodec.getDefault().createObjectBuilder();
+
+		current.forEach((key, value) -> {
+			if (!sameValue(value, baseline.get(key)))
+				changes.add(key, value);
+		});
+
+		// A property that toJSON no longer writes was cleared, so the server must be told to clear it as well
+		baseline.forEach((key, value) -> {
+			if (!current.containsKey(key) && value != JsonValue.NULL)
+				changes.addNull(key);
+		});
+
+		return changes.build();
+	}
+
+	static JsonObject snapshot(JsonModel model) {
+		JsonObjectBuilder builder = JsonCodec.getDefault().createObjectBuilder();
+		model.toJSON(builder);
+		return builder.build();
+	}
+
+	/**
+	 * Compare values the way the server sees them, so 1 and 1.0 are the same number
+	 */
+	static boolean sameValue(JsonValue a, JsonValue b) {
+		if (a == null || b == null)
+			return a == b;
+
+		if (a instanceof JsonNumber && b instanceof JsonNumber)
+			return ((JsonNumber) a).bigDecimalValue().compareTo(((JsonNumber) b).bigDecimalValue()) == 0;
+
+		return a.equals(b);
+	}
+
+	private static void expunge() {
+		Object key;
+		while ((key = collected.poll()) != null)
+			baselines.remove(key);
+	}
+
+	private static class Key extends WeakReference<JsonModel> {
+		private final int hash;
+
+		Key(JsonModel model, ReferenceQueue<JsonModel> queue) {
+			super(model, queue);
+			this.hash = System.identityHashCode(model);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object other) {
+			if (this == other)
+				return true;
+
+			if (!(other instanceof Key))
+				return false;
+
+			JsonModel model = get();
+			return model != null && model == ((Key) other).get();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package tornadofx;
+
+import javax.json.*;
+import javax.json.stream.JsonParser;
+import java.util.function.Consumer;
+
+/**
+ * Builds JSON values from a streaming parser, one array element at a time, so large
+ * documents never have to be held in memory as a whole.
+ */
+class JsonStreams {
+
+	/**
+	 * Pass each object in a top level array to the consumer. A single top level object is passed on by itself.
+	 */
+	static void forEachObject(JsonCodec codec, JsonParser parser, Consumer<JsonObject> consumer) {
+		if (!parser.hasNext())
+			return;
+
+		JsonParser.Event event = parser.next();
+
+		if (event == JsonParser.Event.START_OBJECT) {
+			consumer.accept(readObject(codec, parser));
+		} else if (event == JsonParser.Event.START_ARRAY) {
+			while (parser.hasNext()) {
+				event = parser.next();
+
+				if (event == JsonParser.Event.END_ARRAY)
+					return;
+
+				if (event == JsonParser.Event.START_OBJECT)
+					consumer.accept(readObject(codec, parser));
+				else if (event == JsonParser.Event.START_ARRAY)
+					readArray(codec, parser);
+			}
+		}
+	}
+
+	/**
+	 * Read a complete document straight from the parser, without holding the raw text
+	 *
+	 * @return The top level object or array, or null if the input is empty
+	 */
+	static JsonStructure read(JsonCodec codec, JsonParser parser) {
+		if (!parser.hasNext())
+			return null;
+
+		JsonParser.Event event = parser.next();
+
+		if (event == JsonParser.Event.START_OBJECT)
+			return readObject(codec, parser);
+		else if (event == JsonParser.Event.START_ARRAY)
+			return readArray(codec, parser);
+
+		throw new JsonException("Expected a JSON object or array, found " + event);
+	}
+
+	/**
+	 * Read the rest of an object after its START_OBJECT event
+	 */
+	static JsonObject readObject(JsonCodec codec, JsonParser parser) {
+		JsonObjectBuilder builder = codec.createObjectBuilder();
+		String key = null;
+
+		while (parser.hasNext()) {
+			JsonParser.Event event = parser.next();
+
+			switch (event) {
+				case KEY_NAME:
+					key = parser.getString();
+					break;
+				case START_OBJECT:
+					builder.add(key, readObject(codec, parser));
+					break;
+				case START_ARRAY:
+					builder.add(key, readArray(codec, parser));
+					break;
+				case VALUE_STRING:
+					builder.add(key, parser.getString());
+					break;
+				case VALUE_NUMBER:
+					if (fitsInLong(parser))
+						builder.add(key, parser.getLong());
+					else
+						builder.add(key, JsonTree.number(parser.getString()));
+					break;
+				case VALUE_TRUE:
+					builder.add(key, true);
+					break;
+				case VALUE_FALSE:
+					builder.add(key, false);
+					break;
+				case VALUE_NULL:
+					builder.addNull(key);
+					break;
+				case END_OBJECT:
+					return builder.build();
+			}
+		}
+
+		throw new JsonException("Unexpected end of JSON input while reading object");
+	}
+
+	/**
+	 * Read the rest of an array after its START_ARRAY event
+	 */
+	static JsonArray readArray(JsonCodec codec, JsonParser parser) {
+		JsonArrayBuilder builder = codec.createArrayBuilder();
+
+		while (parser.hasNext()) {
+			JsonParser.Event event = parser.next();
+
+			switch (event) {
+				case START_OBJECT:
+					builder.add(readObject(codec, parser));
+					break;
+				case START_ARRAY:
+					builder.add(readArray(codec, parser));
+					break;
+				case VALUE_STRING:
+					builder.add(parser.getString());
+					break;
+				case VALUE_NUMBER:
+					if (fitsInLong(parser))
+						builder.add(parser.getLong());
+					else
+						builder.add(JsonTree.number(parser.getString()));
+					break;
+				case VALUE_TRUE:
+					builder.add(true);
+					break;
+				case VALUE_FALSE:
+					builder.add(false);
+					break;
+				case VALUE_NULL:
+					builder.addNull();
+					break;
+				case END_ARRAY:
+					return builder.build();
+			}
+		}
+
+		throw new JsonException("Unexpected end of JSON input while reading array");
+	}
+
+	/**
+	 * Integral numbers of up to 18 digits are read as a long, so most ids and counts skip the BigDecimal.
+	 * Other numbers keep their text, which doubleValue parses directly.
+	 */
+	private static boolean fitsInLong(JsonParser parser) {
+		return parser.isIntegralNumber() && parser.getString().length() <= 18;
+	}
+}
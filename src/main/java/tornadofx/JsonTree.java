@@ -0,0 +1,565 @@
+package tornadofx;
+
+import javax.json.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Immutable JSON-P values and builders that need no JSON-P provider. Numbers keep the long or the text they
+ * were parsed from, and only create a BigDecimal when one is asked for. Values compare equal to, and have
+ * the same hash codes as, the values of the JSON-P provider, and toString returns JSON text.
+ */
+class JsonTree {
+
+	static JsonNumber number(long value) {
+		return new LongNumber(value);
+	}
+
+	/**
+	 * @param text A JSON number, kept as is until its value is needed
+	 */
+	static JsonNumber number(String text) {
+		return new DecimalNumber(text, null);
+	}
+
+	static JsonNumber number(BigDecimal value) {
+		return new DecimalNumber(null, value);
+	}
+
+	static JsonString string(String value) {
+		return new StringValue(value);
+	}
+
+	static class ObjectBuilder implements JsonObjectBuilder {
+		private Map<String, JsonValue> values = new LinkedHashMap<>();
+
+		public JsonObjectBuilder add(String name, JsonValue value) {
+			values.put(Objects.requireNonNull(name), Objects.requireNonNull(value));
+			return this;
+		}
+
+		public JsonObjectBuilder add(String name, String value) {
+			return add(name, string(Objects.requireNonNull(value)));
+		}
+
+		public JsonObjectBuilder add(String name, BigInteger value) {
+			return add(name, number(new BigDecimal(value)));
+		}
+
+		public JsonObjectBuilder add(String name, BigDecimal value) {
+			return add(name, number(Objects.requireNonNull(value)));
+		}
+
+		public JsonObjectBuilder add(String name, int value) {
+			return add(name, number(value));
+		}
+
+		public JsonObjectBuilder add(String name, long value) {
+			return add(name, number(value));
+		}
+
+		public JsonObjectBuilder add(String name, double value) {
+			return add(name, number(BigDecimal.valueOf(value)));
+		}
+
+		public JsonObjectBuilder add(String name, boolean value) {
+			return add(name, value ? JsonValue.TRUE : JsonValue.FALSE);
+		}
+
+		public JsonObjectBuilder addNull(String name) {
+			return add(name, JsonValue.NULL);
+		}
+
+		public JsonObjectBuilder add(String name, JsonObjectBuilder builder) {
+			return add(name, builder.build());
+		}
+
+		public JsonObjectBuilder add(String name, JsonArrayBuilder builder) {
+			return add(name, builder.build());
+		}
+
+		/**
+		 * Hands the values over to the object, like the JSON-P builders the builder starts out empty again
+		 */
+		public JsonObject build() {
+			JsonObject object = new ObjectValue(values);
+			values = new LinkedHashMap<>();
+			return object;
+		}
+	}
+
+	static class ArrayBuilder implements JsonArrayBuilder {
+		private List<JsonValue> values = new ArrayList<>();
+
+		public JsonArrayBuilder add(JsonValue value) {
+			values.add(Objects.requireNonNull(value));
+			return this;
+		}
+
+		public JsonArrayBuilder add(String value) {
+			return add(string(Objects.requireNonNull(value)));
+		}
+
+		public JsonArrayBuilder add(BigDecimal value) {
+			return add(number(Objects.requireNonNull(value)));
+		}
+
+		public JsonArrayBuilder add(BigInteger value) {
+			return add(number(new BigDecimal(value)));
+		}
+
+		public JsonArrayBuilder add(int value) {
+			return add(number(value));
+		}
+
+		public JsonArrayBuilder add(long value) {
+			return add(number(value));
+		}
+
+		public JsonArrayBuilder add(double value) {
+			return add(number(BigDecimal.valueOf(value)));
+		}
+
+		public JsonArrayBuilder add(boolean value) {
+			return add(value ? JsonValue.TRUE : JsonValue.FALSE);
+		}
+
+		public JsonArrayBuilder addNull() {
+			return add(JsonValue.NULL);
+		}
+
+		public JsonArrayBuilder add(JsonObjectBuilder builder) {
+			return add(builder.build());
+		}
+
+		public JsonArrayBuilder add(JsonArrayBuilder builder) {
+			return add(builder.build());
+		}
+
+		public JsonArray build() {
+			JsonArray array = new ArrayValue(values);
+			values = new ArrayList<>();
+			return array;
+		}
+	}
+
+	private static class ObjectValue extends AbstractMap<String, JsonValue> implements JsonObject {
+		private final Map<String, JsonValue> values;
+		private final Set<Entry<String, JsonValue>> entries;
+
+		ObjectValue(Map<String, JsonValue> values) {
+			this.values = values;
+			entries = Collections.unmodifiableMap(values).entrySet();
+		}
+
+		public Set<Entry<String, JsonValue>> entrySet() {
+			return entries;
+		}
+
+		public JsonValue get(Object key) {
+			return values.get(key);
+		}
+
+		public boolean containsKey(Object key) {
+			return values.containsKey(key);
+		}
+
+		public int size() {
+			return values.size();
+		}
+
+		public JsonArray getJsonArray(String name) {
+			return (JsonArray) values.get(name);
+		}
+
+		public JsonObject getJsonObject(String name) {
+			return (JsonObject) values.get(name);
+		}
+
+		public JsonNumber getJsonNumber(String name) {
+			return (JsonNumber) values.get(name);
+		}
+
+		public JsonString getJsonString(String name) {
+			return (JsonString) values.get(name);
+		}
+
+		public String getString(String name) {
+			return getJsonString(name).getString();
+		}
+
+		public String getString(String name, String defaultValue) {
+			JsonValue value = values.get(name);
+			return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+		}
+
+		public int getInt(String name) {
+			return getJsonNumber(name).intValue();
+		}
+
+		public int getInt(String name, int defaultValue) {
+			JsonValue value = values.get(name);
+			return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+		}
+
+		public boolean getBoolean(String name) {
+			return booleanValue(values.get(name));
+		}
+
+		public boolean getBoolean(String name, boolean defaultValue) {
+			JsonValue value = values.get(name);
+			return value == JsonValue.TRUE || value == JsonValue.FALSE ? value == JsonValue.TRUE : defaultValue;
+		}
+
+		public boolean isNull(String name) {
+			return values.get(name).equals(JsonValue.NULL);
+		}
+
+		public ValueType getValueType() {
+			return ValueType.OBJECT;
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			write(out, this);
+			return out.toString();
+		}
+	}
+
+	private static class ArrayValue extends AbstractList<JsonValue> implements JsonArray {
+		private final List<JsonValue> values;
+
+		ArrayValue(List<JsonValue> values) {
+			this.values = values;
+		}
+
+		public JsonValue get(int index) {
+			return values.get(index);
+		}
+
+		public int size() {
+			return values.size();
+		}
+
+		public JsonObject getJsonObject(int index) {
+			return (JsonObject) values.get(index);
+		}
+
+		public JsonArray getJsonArray(int index) {
+			return (JsonArray) values.get(index);
+		}
+
+		public JsonNumber getJsonNumber(int index) {
+			return (JsonNumber) values.get(index);
+		}
+
+		public JsonString getJsonString(int index) {
+			return (JsonString) values.get(index);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T extends JsonValue> List<T> getValuesAs(Class<T> type) {
+			return (List<T>) this;
+		}
+
+		public String getString(int index) {
+			return getJsonString(index).getString();
+		}
+
+		public String getString(int index, String defaultValue) {
+			JsonValue value = index >= 0 && index < values.size() ? values.get(index) : null;
+			return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+		}
+
+		public int getInt(int index) {
+			return getJsonNumber(index).intValue();
+		}
+
+		public int getInt(int index, int defaultValue) {
+			JsonValue value = index >= 0 && index < values.size() ? values.get(index) : null;
+			return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+		}
+
+		public boolean getBoolean(int index) {
+			return booleanValue(values.get(index));
+		}
+
+		public boolean getBoolean(int index, boolean defaultValue) {
+			JsonValue value = index >= 0 && index < values.size() ? values.get(index) : null;
+			return value == JsonValue.TRUE || value == JsonValue.FALSE ? value == JsonValue.TRUE : defaultValue;
+		}
+
+		public boolean isNull(int index) {
+			return values.get(index).equals(JsonValue.NULL);
+		}
+
+		public ValueType getValueType() {
+			return ValueType.ARRAY;
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			write(out, this);
+			return out.toString();
+		}
+	}
+
+	/**
+	 * An integral number that fits in a long, every accessor works on the long
+	 */
+	static class LongNumber implements JsonNumber {
+		private final long value;
+
+		LongNumber(long value) {
+			this.value = value;
+		}
+
+		public boolean isIntegral() {
+			return true;
+		}
+
+		public int intValue() {
+			return (int) value;
+		}
+
+		public int intValueExact() {
+			return Math.toIntExact(value);
+		}
+
+		public long longValue() {
+			return value;
+		}
+
+		public long longValueExact() {
+			return value;
+		}
+
+		public BigInteger bigIntegerValue() {
+			return BigInteger.valueOf(value);
+		}
+
+		public BigInteger bigIntegerValueExact() {
+			return BigInteger.valueOf(value);
+		}
+
+		public double doubleValue() {
+			return (double) value;
+		}
+
+		public BigDecimal bigDecimalValue() {
+			return BigDecimal.valueOf(value);
+		}
+
+		public ValueType getValueType() {
+			return ValueType.NUMBER;
+		}
+
+		public boolean equals(Object o) {
+			if (o instanceof LongNumber)
+				return value == ((LongNumber) o).value;
+
+			return o instanceof JsonNumber && bigDecimalValue().equals(((JsonNumber) o).bigDecimalValue());
+		}
+
+		public int hashCode() {
+			return bigDecimalValue().hashCode();
+		}
+
+		public String toString() {
+			return Long.toString(value);
+		}
+	}
+
+	/**
+	 * Any other number. A number parsed from text converts the text straight to a double for doubleValue,
+	 * and only creates the BigDecimal for the other accessors.
+	 */
+	private static class DecimalNumber implements JsonNumber {
+		private final String text;
+		private BigDecimal value;
+
+		DecimalNumber(String text, BigDecimal value) {
+			this.text = text;
+			this.value = value;
+		}
+
+		public boolean isIntegral() {
+			return bigDecimalValue().scale() == 0;
+		}
+
+		public int intValue() {
+			return bigDecimalValue().intValue();
+		}
+
+		public int intValueExact() {
+			return bigDecimalValue().intValueExact();
+		}
+
+		public long longValue() {
+			return bigDecimalValue().longValue();
+		}
+
+		public long longValueExact() {
+			return bigDecimalValue().longValueExact();
+		}
+
+		public BigInteger bigIntegerValue() {
+			return bigDecimalValue().toBigInteger();
+		}
+
+		public BigInteger bigIntegerValueExact() {
+			return bigDecimalValue().toBigIntegerExact();
+		}
+
+		public double doubleValue() {
+			return value != null ? value.doubleValue() : Double.parseDouble(text);
+		}
+
+		/**
+		 * Racing threads may each create the BigDecimal, they all get equal values
+		 */
+		public BigDecimal bigDecimalValue() {
+			BigDecimal result = value;
+
+			if (result == null)
+				value = result = new BigDecimal(text);
+
+			return result;
+		}
+
+		public ValueType getValueType() {
+			return ValueType.NUMBER;
+		}
+
+		public boolean equals(Object o) {
+			return o instanceof JsonNumber && bigDecimalValue().equals(((JsonNumber) o).bigDecimalValue());
+		}
+
+		public int hashCode() {
+			return bigDecimalValue().hashCode();
+		}
+
+		public String toString() {
+			return text != null ? text : value.toString();
+		}
+	}
+
+	private static class StringValue implements JsonString {
+		private final String value;
+
+		StringValue(String value) {
+			this.value = value;
+		}
+
+		public String getString() {
+			return value;
+		}
+
+		public CharSequence getChars() {
+			return value;
+		}
+
+		public ValueType getValueType() {
+			return ValueType.STRING;
+		}
+
+		public boolean equals(Object o) {
+			return o instanceof JsonString && value.equals(((JsonString) o).getString());
+		}
+
+		public int hashCode() {
+			return value.hashCode();
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			writeString(out, value);
+			return out.toString();
+		}
+	}
+
+	private static boolean booleanValue(JsonValue value) {
+		Objects.requireNonNull(value);
+
+		if (value == JsonValue.TRUE)
+			return true;
+
+		if (value == JsonValue.FALSE)
+			return false;
+
+		throw new ClassCastException(String.format("%s is not a JSON boolean", value));
+	}
+
+	private static void write(StringBuilder out, JsonValue value) {
+		switch (value.getValueType()) {
+			case OBJECT:
+				out.append('{');
+				boolean first = true;
+				for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+					if (!first)
+						out.append(',');
+					first = false;
+					writeString(out, entry.getKey());
+					out.append(':');
+					write(out, entry.getValue());
+				}
+				out.append('}');
+				break;
+			case ARRAY:
+				out.append('[');
+				JsonArray array = (JsonArray) value;
+				for (int i = 0; i < array.size(); i++) {
+					if (i > 0)
+						out.append(',');
+					write(out, array.get(i));
+				}
+				out.append(']');
+				break;
+			case STRING:
+				writeString(out, ((JsonString) value).getString());
+				break;
+			default:
+				out.append(value.toString());
+		}
+	}
+
+	private static void writeString(StringBuilder out, String value) {
+		out.append('"');
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\b':
+					out.append("\\b");
+					break;
+				case '\f':
+					out.append("\\f");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (c < 0x20)
+						out.append(String.format("\\u%04x", (int) c));
+					else
+						out.append(c);
+			}
+		}
+
+		out.append('"');
+	}
+}
@@ -0,0 +1,35 @@
+package tornadofx;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared lookups for the JsonModel accessors, so repeated decoding does not rebuild formatters or scan enum constants
+ */
+@SuppressWarnings("unchecked")
+class JsonValues {
+	private static final ConcurrentMap<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>();
+
+	private static final ClassValue<Map<String, Enum<?>>> enumConstants = new ClassValue<Map<String, Enum<?>>>() {
+		protected Map<String, Enum<?>> computeValue(Class<?> type) {
+			Map<String, Enum<?>> constants = new HashMap<>();
+			for (Object constant : type.getEnumConstants())
+				constants.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+			return constants;
+		}
+	};
+
+	static DateTimeFormatter formatter(String pattern) {
+		return formatters.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+	}
+
+	/**
+	 * @return The constant with the given name, or null if there is none
+	 */
+	static <E extends Enum<E>> E enumConstant(Class<E> type, String name) {
+		return (E) enumConstants.get(type).get(name);
+	}
+}
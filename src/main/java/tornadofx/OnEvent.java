@@ -8,5 +8,25 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface OnEvent {
+	/**
+	 * Fold bursts of events into a single delivery when the listener runs in another thread
+	 * than the publisher, for example when a Controller publishes to a View from a background thread.
+	 * Events published in the listener thread are always delivered directly.
+	 *
+	 * @see EventBus#getConflatedEventCount()
+	 */
+	Conflation conflate() default Conflation.NONE;
 
+	/**
+	 * The thread the listener is invoked in. Ignored if an executor is given.
+	 */
+	EventThread thread() default EventThread.DEFAULT;
+
+	/**
+	 * Name of an executor registered with FX.registerExecutor that the listener should be invoked in,
+	 * for example a bounded pool for bursty events.
+	 *
+	 * @see FX#registerExecutor
+	 */
+	String executor() default "";
 }
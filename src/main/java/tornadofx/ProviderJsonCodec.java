@@ -0,0 +1,66 @@
+package tornadofx;
+
+import javax.json.*;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Collections;
+
+/**
+ * JsonCodec on top of a JSON-P provider, with the factories created once up front
+ */
+class ProviderJsonCodec implements JsonCodec {
+	static volatile JsonCodec defaultCodec = new ProviderJsonCodec(JsonProvider.provider());
+
+	private final JsonParserFactory parserFactory;
+	private final JsonGeneratorFactory generatorFactory;
+	private final JsonWriterFactory writerFactory;
+	private final JsonBuilderFactory builderFactory;
+
+	ProviderJsonCodec(JsonProvider provider) {
+		parserFactory = provider.createParserFactory(Collections.emptyMap());
+		generatorFactory = provider.createGeneratorFactory(Collections.emptyMap());
+		writerFactory = provider.createWriterFactory(Collections.emptyMap());
+		builderFactory = provider.createBuilderFactory(Collections.emptyMap());
+	}
+
+	/**
+	 * Reads through JsonStreams instead of a JsonReader of the provider, so numbers are built the same way
+	 * as for streamed responses
+	 */
+	public JsonStructure read(Reader reader) {
+		try (JsonParser parser = parserFactory.createParser(reader)) {
+			JsonStructure result = JsonStreams.read(this, parser);
+
+			if (result == null)
+				throw new JsonException("No JSON object or array in empty input");
+
+			return result;
+		}
+	}
+
+	public JsonParser createParser(InputStream in) {
+		return parserFactory.createParser(in);
+	}
+
+	public JsonGenerator createGenerator(OutputStream out) {
+		return generatorFactory.createGenerator(out);
+	}
+
+	public JsonWriter createWriter(OutputStream out) {
+		return writerFactory.createWriter(out);
+	}
+
+	public JsonObjectBuilder createObjectBuilder() {
+		return builderFactory.createObjectBuilder();
+	}
+
+	public JsonArrayBuilder createArrayBuilder() {
+		return builderFactory.createArrayBuilder();
+	}
+}
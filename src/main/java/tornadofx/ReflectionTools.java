@@ -6,9 +6,14 @@ import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.Pane;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unchecked")
 class ReflectionTools {
@@ -41,12 +46,44 @@ class ReflectionTools {
 		return null;
 	}
 
-	static <Type> Type create(Class<Type> type) {
-		try {
-			return type.newInstance();
-		} catch (Exception ex) {
-			throw new RuntimeException(ex);
+	private static final ClassValue<Supplier<?>> constructors = new ClassValue<Supplier<?>>() {
+		protected Supplier<?> computeValue(Class<?> type) {
+			MethodHandle handle;
+
+			try {
+				Constructor<?> constructor = type.getDeclaredConstructor();
+				if (!constructor.isAccessible())
+					constructor.setAccessible(true);
+
+				handle = MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+			} catch (NoSuchMethodException | IllegalAccessException ex) {
+				return () -> {
+					throw new RuntimeException(ex);
+				};
+			}
+
+			return () -> {
+				try {
+					return handle.invokeExact();
+				} catch (RuntimeException | Error ex) {
+					throw ex;
+				} catch (Throwable ex) {
+					throw new RuntimeException(ex);
+				}
+			};
 		}
+	};
+
+	static <Type> Type create(Class<Type> type) {
+		return constructor(type).get();
+	}
+
+	/**
+	 * A factory that calls the no-arg constructor of the type through a method handle.
+	 * The handle is looked up once per class.
+	 */
+	static <Type> Supplier<Type> constructor(Class<Type> type) {
+		return (Supplier<Type>) constructors.get(type);
 	}
 
 	static void invoke(Object owner, Method method, Object... arguments) throws Exception {
@@ -62,4 +99,15 @@ class ReflectionTools {
 				throw new RuntimeException(ex);
 		}
 	}
+
+	static MethodHandle unreflect(Method method) {
+		if (!method.isAccessible())
+			method.setAccessible(true);
+
+		try {
+			return MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
 }
\ No newline at end of file
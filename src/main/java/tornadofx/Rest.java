@@ -1,39 +1,95 @@
 package tornadofx;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 
 import javax.json.*;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @SuppressWarnings({"unchecked", "unused"})
 public class Rest extends Controller {
     private final AtomicLong atomicseq = new AtomicLong();
 
+    /**
+     * Requests in progress. Observed by UI components, so it is only changed on the FX thread.
+     */
     ObservableList<HttpRequestBase> ongoingRequests = FXCollections.observableArrayList();
 
     @Getter
@@ -47,9 +103,128 @@ public class Rest extends Controller {
     @Getter
     @Setter
     private HttpClientContext clientContext;
+    @Setter
+    private CloseableHttpAsyncClient asyncClient;
 
     private CredentialsProvider credentialsProvider;
 
+    /**
+     * The codec to read and write JSON with. Uses JsonCodec.getDefault() if not set.
+     */
+    @Setter
+    private JsonCodec codec;
+
+    /**
+     * Parse responses straight from the connection instead of reading them into a String first. Saves a copy of
+     * every response, but results have no content text.
+     */
+    @Getter
+    @Setter
+    private boolean streamParsing;
+
+    /**
+     * Optional cache for GET calls. Only calls that return data are cached.
+     */
+    @Getter
+    @Setter
+    private RestCache cache;
+
+    /**
+     * Identical GET calls issued while the first one is still in flight wait for its response instead
+     * of sending their own request. Every caller receives its own result object with the same data.
+     * Synchronous calls made on the FX thread never wait for another call and send their own request.
+     * <p/>
+     * Off by default, since callers that poll a resource expect every call to reach the server.
+     */
+    @Getter
+    @Setter
+    private boolean deduplicate;
+    /**
+     * Request bodies larger than the compression threshold (in bytes) are streamed to the server, compressed
+     * with the request compression. Smaller bodies are sent as is with a known length.
+     */
+    @Getter
+    @Setter
+    private Compression requestCompression = Compression.NONE;
+    @Getter
+    @Setter
+    private int compressionThreshold = 1024;
+    /**
+     * Stream uncompressed request bodies larger than the compression threshold chunked, instead of serializing
+     * them to memory first. Not all servers accept chunked requests, so uncompressed bodies are sent with a
+     * known length by default.
+     */
+    @Getter
+    @Setter
+    private boolean chunkedRequests = false;
+
+    /**
+     * Ask the server for gzip or deflate compressed responses. Changes take effect when configure() is called.
+     */
+    @Getter
+    @Setter
+    private boolean acceptCompressed = true;
+
+    /**
+     * Retry failed calls to idempotent methods according to the policy. No retries if null.
+     */
+    @Getter
+    @Setter
+    private RetryPolicy retryPolicy;
+
+    /**
+     * Fail calls at once while the backend keeps failing. Disabled if null.
+     */
+    @Getter
+    @Setter
+    private CircuitBreaker circuitBreaker;
+
+    private static ScheduledExecutorService scheduler;
+
+    private static volatile int parallelMappingThreshold = 2048;
+
+    private final ConcurrentMap<String, CompletableFuture<JsonResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder deduplicatedCalls = new LongAdder();
+
+    /**
+     * Connection pool and timeout configuration. Changes take effect when configure() is called.
+     * Timeouts are in milliseconds, -1 means the system default.
+     */
+    @Getter
+    @Setter
+    private int maxConnections = 50;
+    @Getter
+    @Setter
+    private int maxConnectionsPerRoute = 20;
+    @Getter
+    @Setter
+    private int connectTimeout = -1;
+    @Getter
+    @Setter
+    private int socketTimeout = -1;
+    @Getter
+    @Setter
+    private int connectionRequestTimeout = -1;
+    @Getter
+    @Setter
+    private long maxIdleTime = 30000;
+    @Getter
+    @Setter
+    private int validateAfterInactivity = 2000;
+
+    private volatile PoolingHttpClientConnectionManager connectionManager;
+    private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private ScheduledFuture<?> asyncEviction;
+
+    /**
+     * Pool statistics for the blocking and the async client combined. Updated on the FX thread
+     * after requests start and complete, or when refreshPoolStats() is called.
+     */
+    private final ReadOnlyIntegerWrapper leasedConnections = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper pendingConnections = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper availableConnections = new ReadOnlyIntegerWrapper();
+    private final AtomicBoolean poolStatsQueued = new AtomicBoolean();
+
     public Rest() {
         resetClientContext();
         configure();
@@ -68,23 +243,222 @@ public class Rest extends Controller {
     }
 
     public void configure(Consumer<HttpClientBuilder> builderConfigurator) {
+        CloseableHttpClient previousClient = client;
+        PoolingHttpClientConnectionManager previousConnectionManager = connectionManager;
+
         HttpClientBuilder builder = getClientBuilder();
         builderConfigurator.accept(builder);
         client = builder.build();
+
+        closeClient(previousClient, previousConnectionManager);
+        resetAsyncClient();
     }
 
     public void configure() {
-        client = getClientBuilder().build();
+        configure(builder -> {});
+    }
+
+    /**
+     * Close a client replaced by configure(), so its pooled connections and eviction thread are released
+     */
+    private void closeClient(CloseableHttpClient previousClient, PoolingHttpClientConnectionManager previousConnectionManager) {
+        if (previousClient != null) {
+            try {
+                previousClient.close();
+            } catch (IOException ex) {
+                fire(new UIError(ex));
+            }
+        }
+
+        if (previousConnectionManager != null)
+            previousConnectionManager.shutdown();
     }
 
     private HttpClientBuilder getClientBuilder() {
-        return HttpClients.custom()
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
                 .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setDefaultCredentialsProvider(credentialsProvider);
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .evictExpiredConnections();
+
+        if (!acceptCompressed)
+            builder.disableContentCompression();
+
+        if (maxIdleTime > 0)
+            builder.evictIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+
+        return builder;
+    }
+
+    /**
+     * The non blocking client used by the async calls. Created and started on first use with
+     * the same configuration as the blocking client. The I/O threads are daemon threads.
+     */
+    public synchronized CloseableHttpAsyncClient getAsyncClient() {
+        if (asyncClient == null) {
+            ThreadFactory daemonThreads = job -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(job);
+                thread.setDaemon(true);
+                return thread;
+            };
+
+            // The reactor treats 0 as no timeout and rejects the -1 that means the system default elsewhere
+            IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                    .setConnectTimeout(Math.max(0, connectTimeout))
+                    .setSoTimeout(Math.max(0, socketTimeout))
+                    .build();
+
+            try {
+                asyncConnectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig, daemonThreads));
+            } catch (IOReactorException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            asyncConnectionManager.setMaxTotal(maxConnections);
+            asyncConnectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+            if (maxIdleTime > 0) {
+                PoolingNHttpClientConnectionManager pool = asyncConnectionManager;
+
+                asyncEviction = getScheduler().scheduleWithFixedDelay(() -> {
+                    pool.closeExpiredConnections();
+                    pool.closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+                }, maxIdleTime, maxIdleTime, TimeUnit.MILLISECONDS);
+            }
+
+            asyncClient = HttpAsyncClients.custom()
+                    .setConnectionManager(asyncConnectionManager)
+                    .setDefaultRequestConfig(getDefaultRequestConfig())
+                    .setDefaultCredentialsProvider(credentialsProvider)
+                    .setThreadFactory(daemonThreads)
+                    .build();
+        }
+
+        if (!asyncClient.isRunning())
+            asyncClient.start();
+
+        return asyncClient;
+    }
+
+    /**
+     * Close the async client so the next async call creates one with the current configuration
+     */
+    private synchronized void resetAsyncClient() {
+        if (asyncClient != null) {
+            try {
+                asyncClient.close();
+            } catch (IOException ex) {
+                fire(new UIError(ex));
+            }
+
+            asyncClient = null;
+            asyncConnectionManager = null;
+        }
+
+        if (asyncEviction != null) {
+            asyncEviction.cancel(false);
+            asyncEviction = null;
+        }
+    }
+
+    /**
+     * Delays the retries of async calls, so no thread is held while waiting, and evicts idle async connections
+     */
+    private static synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null)
+            scheduler = Executors.newSingleThreadScheduledExecutor(FX::newDaemonThread);
+
+        return scheduler;
     }
 
     private RequestConfig getDefaultRequestConfig() {
-        return RequestConfig.custom().build();
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+    }
+
+    /**
+     * Update the pool statistics properties with the current state of the connection pools.
+     * The update runs on the FX thread, and refreshes requested before it runs share a single update.
+     */
+    public void refreshPoolStats() {
+        if (poolStatsQueued.compareAndSet(false, true))
+            FXQueue.post(this::publishPoolStats);
+    }
+
+    private void publishPoolStats() {
+        poolStatsQueued.set(false);
+
+        int leased = 0, pending = 0, available = 0;
+
+        for (ConnPoolControl<HttpRoute> pool : Arrays.<ConnPoolControl<HttpRoute>>asList(connectionManager, asyncConnectionManager)) {
+            if (pool != null) {
+                PoolStats stats = pool.getTotalStats();
+                leased += stats.getLeased();
+                pending += stats.getPending();
+                available += stats.getAvailable();
+            }
+        }
+
+        leasedConnections.set(leased);
+        pendingConnections.set(pending);
+        availableConnections.set(available);
+    }
+
+    /**
+     * Add a request to ongoingRequests from any thread. The change is applied on the FX thread.
+     */
+    private void requestStarted(HttpRequestBase request) {
+        FXQueue.post(() -> ongoingRequests.add(request));
+        refreshPoolStats();
+    }
+
+    /**
+     * Remove a request from ongoingRequests from any thread. The change is applied on the FX thread,
+     * after the addition queued when the request started.
+     */
+    private void requestCompleted(HttpRequestBase request) {
+        FXQueue.post(() -> ongoingRequests.remove(request));
+        refreshPoolStats();
+    }
+
+    /**
+     * @return The number of calls that were answered by the response to an identical call already in flight
+     */
+    public long getDeduplicatedCallCount() {
+        return deduplicatedCalls.sum();
+    }
+
+    /**
+     * @return The number of connections currently in use by a request
+     */
+    public ReadOnlyIntegerProperty leasedConnectionsProperty() {
+        return leasedConnections.getReadOnlyProperty();
+    }
+
+    /**
+     * @return The number of requests waiting for a connection to become available
+     */
+    public ReadOnlyIntegerProperty pendingConnectionsProperty() {
+        return pendingConnections.getReadOnlyProperty();
+    }
+
+    /**
+     * @return The number of idle connections kept alive in the pool
+     */
+    public ReadOnlyIntegerProperty availableConnectionsProperty() {
+        return availableConnections.getReadOnlyProperty();
+    }
+
+    public JsonCodec getCodec() {
+        return codec != null ? codec : JsonCodec.getDefault();
     }
 
     public void resetClientContext() {
@@ -107,6 +481,27 @@ public class Rest extends Controller {
         configure();
     }
 
+    /**
+     * @return The array size from which JsonArrayResult.toModel maps the elements in parallel. The default suits
+     * models with a handful of mapped fields. MapModelsBenchmark in the test sources measures where the parallel
+     * path starts to pay off, run it with your own models to tune the threshold.
+     */
+    public static int getParallelMappingThreshold() {
+        return parallelMappingThreshold;
+    }
+
+    public static void setParallelMappingThreshold(int threshold) {
+        parallelMappingThreshold = threshold;
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    public Batch batch(JsonCall... calls) {
+        return new Batch().add(Arrays.asList(calls));
+    }
+
     public JsonCall get(String path, Object... params) {
         return get(String.format(path, params));
     }
@@ -123,6 +518,14 @@ public class Rest extends Controller {
         return new JsonCall(new HttpPut(getURI(path)));
     }
 
+    public JsonCall patch(String path, Object... params) {
+        return patch(String.format(path, params));
+    }
+
+    public JsonCall patch(String path) {
+        return new JsonCall(new HttpPatch(getURI(path)));
+    }
+
     public JsonCall post(String path, Object... params) {
         return post(String.format(path, params));
     }
@@ -232,13 +635,134 @@ public class Rest extends Controller {
             if (data == null)
                 return FXCollections.emptyObservableList();
 
-            Stream<Model> stream = stream().map(json -> {
-                Model model = ReflectionTools.create(objectClass);
-                model.updateModel(json);
-                return model;
-            });
+            ObservableList<Model> models = FXCollections.observableArrayList();
+            models.setAll(mapModels(objectClass));
+            return models;
+        }
 
-            return FXCollections.observableArrayList(stream.collect(Collectors.toList()));
+        /**
+         * Replace the contents of the target list with the models in a single change
+         */
+        public <Model extends JsonModel> void toModel(Class<Model> objectClass, ObservableList<Model> target) {
+            target.setAll(data == null ? Collections.emptyList() : mapModels(objectClass));
+        }
+
+        /**
+         * Merge the elements into a list of models that was loaded earlier. Elements are matched to models by the
+         * value of the key property. Matched models are updated in place, and only if their JSON changed since the
+         * last merge. Models that are no longer present are removed and new elements are inserted, so the list
+         * only reports the rows that actually came or went. If the order of the remaining rows changed, the list
+         * is replaced in a single change instead.
+         * <p/>
+         * Merged models remember the JSON they were merged with, which is also the baseline for
+         * {@link JsonModel#getChanges()}. Call this on the FX thread if the list or the models are shown.
+         *
+         * @param objectClass The model type to create for new elements
+         * @param target      The list to merge into
+         * @param keyProperty The JSON property that identifies an element, e.g. "id"
+         */
+        public <Model extends JsonModel> void merge(Class<Model> objectClass, ObservableList<Model> target, String keyProperty) {
+            if (data == null)
+                return;
+
+            Map<Object, Model> existing = new HashMap<>();
+            for (Model model : target) {
+                JsonObject baseline = JsonModelTracker.getBaseline(model);
+                if (baseline == null) {
+                    baseline = JsonModelTracker.snapshot(model);
+                    JsonModelTracker.setBaseline(model, baseline);
+                }
+                existing.put(keyOf(baseline.get(keyProperty)), model);
+            }
+
+            Supplier<Model> constructor = ReflectionTools.constructor(objectClass);
+            List<Model> merged = new ArrayList<>(data.size());
+            Set<Model> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (JsonObject json : data.getValuesAs(JsonObject.class)) {
+                Model model = existing.remove(keyOf(json.get(keyProperty)));
+
+                if (model == null) {
+                    model = constructor.get();
+                    model.updateModel(json);
+                } else {
+                    kept.add(model);
+
+                    if (!json.equals(JsonModelTracker.getBaseline(model)))
+                        model.updateModel(json);
+                }
+
+                JsonModelTracker.setBaseline(model, json);
+                merged.add(model);
+            }
+
+            // Remove the models that are gone, one contiguous range at a time
+            for (int end = target.size(); end > 0; ) {
+                if (kept.contains(target.get(end - 1))) {
+                    end--;
+                    continue;
+                }
+
+                int start = end - 1;
+                while (start > 0 && !kept.contains(target.get(start - 1)))
+                    start--;
+
+                target.remove(start, end);
+                end = start;
+            }
+
+            // The remaining models must appear in the same order as in the merged list, otherwise replace the list
+            int position = 0;
+            for (Model model : merged) {
+                if (kept.contains(model)) {
+                    if (target.get(position) != model) {
+                        target.setAll(merged);
+                        return;
+                    }
+                    position++;
+                }
+            }
+
+            // Insert the new models, one contiguous range at a time
+            for (int i = 0; i < merged.size(); ) {
+                if (i < target.size() && target.get(i) == merged.get(i)) {
+                    i++;
+                    continue;
+                }
+
+                int end = i;
+                while (end < merged.size() && !kept.contains(merged.get(end)))
+                    end++;
+
+                target.addAll(i, merged.subList(i, end));
+                i = end;
+            }
+        }
+
+        private static Object keyOf(JsonValue value) {
+            if (value instanceof JsonNumber)
+                return ((JsonNumber) value).bigDecimalValue().stripTrailingZeros();
+            if (value instanceof JsonString)
+                return ((JsonString) value).getString();
+            return value;
+        }
+
+        /**
+         * Arrays of parallelMappingThreshold elements or more are mapped on the fork-join pool, so updateModel
+         * must not depend on anything but the model and the JSON it receives. The order is kept either way.
+         */
+        private <Model extends JsonModel> List<Model> mapModels(Class<Model> objectClass) {
+            Supplier<Model> constructor = ReflectionTools.constructor(objectClass);
+
+            IntStream indexes = IntStream.range(0, data.size());
+            if (data.size() >= parallelMappingThreshold)
+                indexes = indexes.parallel();
+
+            return indexes.mapToObj(i -> {
+                Model model = constructor.get();
+                model.updateModel(data.getJsonObject(i));
+                return model;
+            }).collect(Collectors.toList());
         }
 
     }
@@ -307,32 +831,122 @@ public class Rest extends Controller {
 
     @SuppressWarnings("unused")
     public class JsonCall {
+        @Getter
         private final HttpRequestBase request;
+        @Getter
         private JsonStructure data;
+        private byte[] serialized;
+        private Consumer<JsonGenerator> body;
+        private JsonModel changedModel;
+        private String cacheKey;
+        private RestCache.Entry cached;
+        private Compression compression;
+        private Integer compressionThreshold;
+        private Boolean chunked;
 
         public JsonCall(HttpRequestBase request) {
             this.request = request;
         }
 
         public JsonCall data(JsonStructure data) {
+            return body(data, null, null, null);
+        }
+
+        public JsonCall data(JsonObjectBuilder data) {
+            return body(data.build(), null, null, null);
+        }
+
+        public JsonCall data(JsonArrayBuilder data) {
+            return body(data.build(), null, null, null);
+        }
+
+        /**
+         * Send the model as the request body. The model is written with {@link JsonModel#writeJSON(JsonGenerator)}
+         * right away, in the calling thread, so it may be changed again as soon as this returns.
+         *
+         * @see #streamData(JsonModel)
+         */
+        public JsonCall data(JsonModel data) {
+            return body(null, JsonEntity.serialize(getCodec(), data::writeJSON), null, null);
+        }
+
+        /**
+         * Send only the properties of the model that changed since it was merged, marked clean or last sent this way,
+         * e.g. for a PATCH request. When the call succeeds the sent properties become the new baseline of the model.
+         *
+         * @see JsonModel#getChanges()
+         */
+        public JsonCall changes(JsonModel model) {
+            return body(model.getChanges(), null, null, model);
+        }
+
+        /**
+         * Send the models as a JSON array. The models are written right away, in the calling thread, so the
+         * collection and the models may be changed again as soon as this returns.
+         *
+         * @see #streamData(Collection)
+         */
+        public JsonCall data(Collection<? extends JsonModel> data) {
+            return body(null, JsonEntity.serialize(getCodec(), arrayWriter(data)), null, null);
+        }
+
+        /**
+         * Stream the model into the request while it is sent, instead of serializing it up front. The body is
+         * written in the thread that performs the request, every time it is sent, so the model must not change
+         * until the call completes. Streamed bodies are always sent chunked, also when they are not compressed.
+         */
+        public JsonCall streamData(JsonModel data) {
+            return body(null, null, data::writeJSON, null);
+        }
+
+        /**
+         * Stream the models into the request one at a time while it is sent, so large batches are submitted in
+         * constant memory. The same rules as for {@link #streamData(JsonModel)} apply to the collection and the models.
+         */
+        public JsonCall streamData(Collection<? extends JsonModel> data) {
+            return body(null, null, arrayWriter(data), null);
+        }
+
+        private JsonCall body(JsonStructure data, byte[] serialized, Consumer<JsonGenerator> body, JsonModel changedModel) {
             this.data = data;
+            this.serialized = serialized;
+            this.body = body;
+            this.changedModel = changedModel;
             return this;
         }
 
-        public JsonCall data(JsonObjectBuilder data) {
-            this.data = data.build();
+        private Consumer<JsonGenerator> arrayWriter(Collection<? extends JsonModel> models) {
+            return generator -> {
+                generator.writeStartArray();
+                for (JsonModel model : models)
+                    model.writeJSON(generator);
+                generator.writeEnd();
+            };
+        }
+
+        /**
+         * Compress the request body with the given encoding, overriding the setting of the Rest instance
+         */
+        public JsonCall compress(Compression compression) {
+            this.compression = compression;
             return this;
         }
 
-        public JsonCall data(JsonArrayBuilder data) {
-            this.data = data.build();
+        /**
+         * Compress the request body with the given encoding if it is larger than the threshold in bytes
+         */
+        public JsonCall compress(Compression compression, int threshold) {
+            this.compression = compression;
+            this.compressionThreshold = threshold;
             return this;
         }
 
-        public JsonCall data(JsonModel data) {
-            JsonObjectBuilder builder = Json.createObjectBuilder();
-            data.toJSON(builder);
-            this.data = builder.build();
+        /**
+         * Stream the request body chunked if it is larger than the compression threshold, even if it is not compressed,
+         * overriding the setting of the Rest instance
+         */
+        public JsonCall chunked(boolean chunked) {
+            this.chunked = chunked;
             return this;
         }
 
@@ -359,72 +973,902 @@ public class Rest extends Controller {
             return result;
         }
 
-        private JsonResult execute(Class<? extends JsonStructure> returnType) {
+        /**
+         * Perform the call on the non blocking HTTP client. No thread is tied up while waiting for the response.
+         */
+        public CompletableFuture<JsonObjectResult> oneAsync() {
+            return oneAsync(null);
+        }
+
+        /**
+         * Perform the call on the non blocking HTTP client and complete the future on the FX thread if the receiver is a UIComponent
+         *
+         * @param receiver The component that will consume the result
+         */
+        public CompletableFuture<JsonObjectResult> oneAsync(Component receiver) {
+            long seq = atomicseq.addAndGet(1L);
+
+            return deliver(executeAsync(JsonObject.class).thenApply(r -> {
+                JsonObjectResult result = (JsonObjectResult) r;
+                result.seq = seq;
+                return result;
+            }), receiver);
+        }
+
+        public CompletableFuture<JsonArrayResult> listAsync() {
+            return listAsync(null);
+        }
+
+        public CompletableFuture<JsonArrayResult> listAsync(Component receiver) {
+            long seq = atomicseq.addAndGet(1L);
+
+            return deliver(executeAsync(JsonArray.class).thenApply(r -> {
+                JsonArrayResult result = (JsonArrayResult) r;
+                result.seq = seq;
+                return result;
+            }), receiver);
+        }
+
+        public CompletableFuture<JsonEmptyResult> executeAsync() {
+            return executeAsync((Component) null);
+        }
+
+        public CompletableFuture<JsonEmptyResult> executeAsync(Component receiver) {
+            long seq = atomicseq.addAndGet(1L);
+
+            return deliver(executeAsync((Class<? extends JsonStructure>) null).thenApply(r -> {
+                JsonEmptyResult result = (JsonEmptyResult) r;
+                result.seq = seq;
+                return result;
+            }), receiver);
+        }
+
+        /**
+         * Parse the response array one element at a time as it is downloaded and pass each element on as a model object.
+         * The response is never held in memory as a whole, so this is suited for very large lists.
+         * <p/>
+         * The cache, circuit breaker and retry policy apply like they do for execute, with two differences: an attempt is
+         * only retried until the first element has been passed on, so the consumer never sees an element twice, and streamed
+         * responses are served from and revalidated against the cache but never stored in it. Responses outside the 2xx range
+         * are not parsed and are returned as an error result with an HttpResponseException.
+         *
+         * @param modelClass The model type to create for each element
+         * @param consumer   Receives each model object in the thread that performs the call
+         * @return A result with the response or the error
+         */
+        public <Model extends JsonModel> JsonEmptyResult stream(Class<Model> modelClass, Consumer<Model> consumer) {
+            long seq = atomicseq.addAndGet(1L);
+            AtomicBoolean started = new AtomicBoolean();
+
+            JsonEmptyResult result = performStream(json -> {
+                started.set(true);
+
+                Model model = ReflectionTools.create(modelClass);
+                model.updateModel(json);
+                consumer.accept(model);
+            }, started);
+
+            result.seq = seq;
+            return result;
+        }
+
+        /**
+         * Stream the response array into the target list in chunks. The chunks are appended on the FX thread
+         * while the download continues, so rows appear before the whole response has been received.
+         *
+         * @param modelClass The model type to create for each element
+         * @param target     The list to append the model objects to
+         * @param chunkSize  The number of model objects to collect before they are appended to the list
+         * @return A result with the response or the error
+         */
+        public <Model extends JsonModel> JsonEmptyResult stream(Class<Model> modelClass, ObservableList<Model> target, int chunkSize) {
+            if (chunkSize <= 0)
+                throw new IllegalArgumentException(String.format("The chunk size must be positive, was %d", chunkSize));
+
+            List<Model> chunk = new ArrayList<>(chunkSize);
+
+            JsonEmptyResult result = stream(modelClass, model -> {
+                chunk.add(model);
+
+                if (chunk.size() >= chunkSize) {
+                    append(target, new ArrayList<>(chunk));
+                    chunk.clear();
+                }
+            });
+
+            if (!chunk.isEmpty())
+                append(target, chunk);
+
+            return result;
+        }
+
+        private <Model> void append(ObservableList<Model> target, List<Model> chunk) {
+            if (Platform.isFxApplicationThread())
+                target.addAll(chunk);
+            else
+                FXQueue.post(FX.errorReportingRunnable(Rest.this, () -> target.addAll(chunk)));
+        }
+
+        /**
+         * Stream the call, retrying it until the first element has been passed on
+         *
+         * @param started Set once the receiver has been given an element
+         */
+        private JsonEmptyResult performStream(Consumer<JsonObject> receiver, AtomicBoolean started) {
+            try {
+                JsonResult cachedResult = checkCache(JsonArray.class);
+                if (cachedResult != null)
+                    return replay(cachedResult, receiver);
+            } catch (Exception ex) {
+                return new JsonEmptyResult(null, ex);
+            }
+
+            for (int attempt = 1; ; attempt++) {
+                if (!allowRequest())
+                    return new JsonEmptyResult(null, circuitOpen());
+
+                JsonEmptyResult result = performStreamOnce(receiver);
+                long delay = afterAttempt(attempt, result);
+
+                if (delay < 0 || started.get() || !pause(delay))
+                    return failUnlessSuccessful(result);
+            }
+        }
+
+        private JsonEmptyResult performStreamOnce(Consumer<JsonObject> receiver) {
             HttpResponse response = null;
 
             try {
-                if (data != null && request instanceof HttpEntityEnclosingRequestBase) {
-                    HttpEntityEnclosingRequestBase heer = (HttpEntityEnclosingRequestBase) request;
-                    heer.setHeader(new BasicHeader("Content-Type", "application/json"));
-                    heer.setEntity(new StringEntity(data.toString(), StandardCharsets.UTF_8));
+                prepareRequest();
+
+                requestStarted(request);
+                response = client.execute(host, request, clientContext);
+
+                int status = response.getStatusLine().getStatusCode();
+
+                if (cached != null && status == HttpStatus.SC_NOT_MODIFIED) {
+                    EntityUtils.consume(response.getEntity());
+                    cache.revalidated();
+                    cache.refresh(cacheKey, cached, response);
+                    return replay(toResult(JsonArray.class, cached.toResponse(), cached.getContent(), cached.getData()), receiver);
+                }
+
+                // Error bodies are skipped, the status is turned into an error once the retry policy is done with it
+                if (status < 200 || status >= 300) {
+                    EntityUtils.consume(response.getEntity());
+                    return new JsonEmptyResult(response);
+                }
+
+                HttpEntity entity = decode(response);
+
+                if (entity != null) {
+                    try (InputStream input = entity.getContent(); JsonParser parser = getCodec().createParser(input)) {
+                        JsonStreams.forEachObject(getCodec(), parser, receiver);
+                    }
                 }
 
-                ongoingRequests.add(request);
+                return new JsonEmptyResult(response);
+            } catch (Exception ex) {
+                return new JsonEmptyResult(response, ex);
+            } finally {
+                requestCompleted(request);
+            }
+        }
+
+        /**
+         * Pass the elements of a cached response on to the receiver
+         */
+        private JsonEmptyResult replay(JsonResult cachedResult, Consumer<JsonObject> receiver) {
+            for (JsonValue value : ((JsonArrayResult) cachedResult).getData())
+                receiver.accept((JsonObject) value);
+
+            return new JsonEmptyResult(cachedResult.getResponse());
+        }
+
+        private JsonEmptyResult failUnlessSuccessful(JsonEmptyResult result) {
+            int status = result.getStatusCode();
+
+            if (result.getError() != null || (status >= 200 && status < 300))
+                return result;
+
+            return new JsonEmptyResult(result.getResponse(), new HttpResponseException(status, result.getResponse().getStatusLine().getReasonPhrase()));
+        }
+
+        private JsonResult execute(Class<? extends JsonStructure> returnType) {
+            try {
+                JsonResult cachedResult = checkCache(returnType);
+                if (cachedResult != null)
+                    return cachedResult;
+            } catch (Exception ex) {
+                return toErrorResult(returnType, null, ex);
+            }
+
+            String flightKey = getFlightKey(returnType);
+            if (flightKey == null)
+                return perform(returnType);
+
+            CompletableFuture<JsonResult> flight = new CompletableFuture<>();
+            CompletableFuture<JsonResult> leader = inFlight.putIfAbsent(flightKey, flight);
+
+            if (leader != null) {
+                // Async calls complete on the FX thread, so waiting for one there could deadlock
+                if (Platform.isFxApplicationThread())
+                    return perform(returnType);
+
+                deduplicatedCalls.increment();
+                return copyOf(leader.join());
+            }
+
+            try {
+                JsonResult result = perform(returnType);
+                flight.complete(result);
+                return result;
+            } catch (Throwable ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(flightKey, flight);
+            }
+        }
+
+        /**
+         * Perform the call, retrying it as long as the retry policy allows. The circuit breaker is consulted
+         * before every attempt and told about the outcome.
+         */
+        private JsonResult perform(Class<? extends JsonStructure> returnType) {
+            for (int attempt = 1; ; attempt++) {
+                if (!allowRequest())
+                    return toErrorResult(returnType, null, circuitOpen());
+
+                JsonResult result = performOnce(returnType);
+                long delay = afterAttempt(attempt, result);
+
+                if (delay < 0 || !pause(delay))
+                    return result;
+            }
+        }
+
+        /**
+         * Wait before the next attempt
+         *
+         * @return False if the thread was interrupted and no further attempt should be made
+         */
+        private boolean pause(long delay) {
+            try {
+                Thread.sleep(delay);
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private CompletableFuture<JsonResult> performAsync(Class<? extends JsonStructure> returnType) {
+            return performAsync(returnType, 1);
+        }
+
+        private CompletableFuture<JsonResult> performAsync(Class<? extends JsonStructure> returnType, int attempt) {
+            if (!allowRequest())
+                return CompletableFuture.completedFuture(toErrorResult(returnType, null, circuitOpen()));
+
+            return performAsyncOnce(returnType).thenCompose(result -> {
+                long delay = afterAttempt(attempt, result);
+
+                if (delay < 0)
+                    return CompletableFuture.completedFuture(result);
+
+                CompletableFuture<JsonResult> retry = new CompletableFuture<>();
+                getScheduler().schedule(() -> performAsync(returnType, attempt + 1).whenComplete((r, error) -> {
+                    if (error != null)
+                        retry.completeExceptionally(error);
+                    else
+                        retry.complete(r);
+                }), delay, TimeUnit.MILLISECONDS);
+                return retry;
+            });
+        }
+
+        private boolean allowRequest() {
+            CircuitBreaker breaker = circuitBreaker;
+            return breaker == null || breaker.allowRequest();
+        }
+
+        private CircuitBreaker.OpenException circuitOpen() {
+            return new CircuitBreaker.OpenException(String.format("%s %s was not performed because the circuit is open", request.getMethod(), request.getURI()));
+        }
+
+        /**
+         * Report the outcome of an attempt to the circuit breaker and consult the retry policy
+         *
+         * @return The delay before the next attempt in milliseconds, or -1 if the result is final
+         */
+        private long afterAttempt(int attempt, JsonResult result) {
+            HttpResponse response = result.getResponse();
+            Exception error = result.getError();
+            boolean failed = error instanceof IOException || (error == null && result.getStatusCode() >= 500);
+
+            CircuitBreaker breaker = circuitBreaker;
+            if (breaker != null) {
+                if (failed)
+                    breaker.onFailure();
+                else
+                    breaker.onSuccess();
+            }
+
+            int status = result.getStatusCode();
+            if (changedModel != null && error == null && status >= 200 && status < 300)
+                JsonModelTracker.commit(changedModel, (JsonObject) data);
+
+            RetryPolicy policy = retryPolicy;
+            long delay = policy == null ? -1 : policy.getDelay(request.getMethod(), attempt, response, error);
+
+            if (delay >= 0 && response != null)
+                EntityUtils.consumeQuietly(response.getEntity());
+
+            return delay;
+        }
+
+        private JsonResult performOnce(Class<? extends JsonStructure> returnType) {
+            HttpResponse response = null;
+
+            try {
+                prepareRequest();
+
+                requestStarted(request);
                 response = client.execute(host, request, clientContext);
 
-                if (returnType != null) {
-                    String content = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                return toResult(returnType, response);
+            } catch (Exception ex) {
+                return toErrorResult(returnType, response, ex);
+            } finally {
+                requestCompleted(request);
+            }
+        }
 
-                    JsonStructure jsonStructure = null;
-                    if (content != null) {
-                        try (JsonReader reader = Json.createReader(new StringReader(content))) {
-                            jsonStructure = reader.read();
-                        }
+        private CompletableFuture<JsonResult> executeAsync(Class<? extends JsonStructure> returnType) {
+            try {
+                JsonResult cachedResult = checkCache(returnType);
+                if (cachedResult != null)
+                    return CompletableFuture.completedFuture(cachedResult);
+            } catch (Exception ex) {
+                return CompletableFuture.completedFuture(toErrorResult(returnType, null, ex));
+            }
+
+            String flightKey = getFlightKey(returnType);
+            if (flightKey == null)
+                return performAsync(returnType);
+
+            CompletableFuture<JsonResult> flight = new CompletableFuture<>();
+            CompletableFuture<JsonResult> leader = inFlight.putIfAbsent(flightKey, flight);
+
+            if (leader != null) {
+                deduplicatedCalls.increment();
+                return leader.thenApply(Rest::copyOf);
+            }
+
+            performAsync(returnType).whenComplete((result, error) -> {
+                inFlight.remove(flightKey, flight);
+
+                if (error != null)
+                    flight.completeExceptionally(error);
+                else
+                    flight.complete(result);
+            });
+
+            return flight;
+        }
+
+        /**
+         * The callback of the async client runs on an I/O dispatcher thread, so it only hands the response over.
+         * The entity is read and parsed on the FX executor.
+         */
+        private CompletableFuture<JsonResult> performAsyncOnce(Class<? extends JsonStructure> returnType) {
+            try {
+                prepareRequest();
+            } catch (Exception ex) {
+                return CompletableFuture.completedFuture(toErrorResult(returnType, null, ex));
+            }
+
+            CompletableFuture<HttpResponse> exchange = new CompletableFuture<>();
+
+            requestStarted(request);
+
+            try {
+                getAsyncClient().execute(host, request, clientContext, new FutureCallback<HttpResponse>() {
+                    public void completed(HttpResponse response) {
+                        exchange.complete(response);
                     }
 
-                    if (returnType.equals(JsonArray.class)) {
-                        if (content == null || content.isEmpty())
-                            return new JsonArrayResult(response, Json.createArrayBuilder().build(), content);
+                    public void failed(Exception ex) {
+                        exchange.completeExceptionally(ex);
+                    }
 
-                        if (jsonStructure instanceof JsonArray) {
-                            return new JsonArrayResult(response, (JsonArray) jsonStructure, content);
-                        } else {
-                            return new JsonArrayResult(response, Json.createArrayBuilder().add(jsonStructure).build(), content);
-                        }
-                    } else {
-                        if (content == null || content.isEmpty())
-                            return new JsonObjectResult(response, Json.createObjectBuilder().build(), content);
-
-                        if (jsonStructure instanceof JsonArray) {
-                            JsonArray a = (JsonArray) jsonStructure;
-
-                            if (a.isEmpty())
-                                return new JsonObjectResult(response, Json.createObjectBuilder().build(), content);
-                            else
-                                return new JsonObjectResult(response, a.getJsonObject(0), content);
-                        } else {
-                            return new JsonObjectResult(response, (JsonObject) jsonStructure, content);
+                    public void cancelled() {
+                        failed(new CancellationException(String.format("%s %s was cancelled", request.getMethod(), request.getURI())));
+                    }
+                });
+            } catch (Exception ex) {
+                requestCompleted(request);
+                return CompletableFuture.completedFuture(toErrorResult(returnType, null, ex));
+            }
+
+            return exchange.handleAsync((response, error) -> {
+                try {
+                    if (error != null)
+                        return toErrorResult(returnType, null, error instanceof Exception ? (Exception) error : new RuntimeException(error));
+
+                    return toResult(returnType, response);
+                } catch (Exception ex) {
+                    return toErrorResult(returnType, response, ex);
+                } finally {
+                    requestCompleted(request);
+                }
+            }, FX.getExecutor());
+        }
+
+        /**
+         * Identical GET calls that return data may share a single request while it is in flight
+         *
+         * @return The key that identifies the call among the calls in flight, or null if it must be performed on its own
+         */
+        private String getFlightKey(Class<? extends JsonStructure> returnType) {
+            if (!deduplicate || returnType == null || !(request instanceof HttpGet))
+                return null;
+
+            return getCacheKey() + ' ' + returnType.getName();
+        }
+
+        private void prepareRequest() throws Exception {
+            if (acceptCompressed && !request.containsHeader("Accept-Encoding"))
+                request.setHeader("Accept-Encoding", "gzip,deflate");
+
+            if ((data != null || serialized != null || body != null) && request instanceof HttpEntityEnclosingRequestBase) {
+                HttpEntityEnclosingRequestBase heer = (HttpEntityEnclosingRequestBase) request;
+                heer.setHeader(new BasicHeader("Content-Type", "application/json"));
+
+                Compression encoding = compression != null ? compression : requestCompression;
+
+                // Streamed models are written into the connection while the request is sent, never into memory
+                if (body != null) {
+                    heer.setEntity(new JsonEntity(body, encoding, getCodec()));
+                    return;
+                }
+
+                JsonEntity entity = data != null ? new JsonEntity(data, encoding, getCodec()) : new JsonEntity(serialized, encoding, getCodec());
+
+                boolean streaming = encoding != Compression.NONE || (chunked != null ? chunked : chunkedRequests);
+
+                if (!streaming) {
+                    heer.setEntity(new ByteArrayEntity(entity.serialize(), ContentType.APPLICATION_JSON));
+                    return;
+                }
+
+                int threshold = compressionThreshold != null ? compressionThreshold : Rest.this.compressionThreshold;
+                byte[] small = threshold > 0 ? entity.serializeWithin(threshold) : null;
+
+                if (small != null)
+                    heer.setEntity(new ByteArrayEntity(small, ContentType.APPLICATION_JSON));
+                else
+                    heer.setEntity(entity);
+            }
+        }
+
+        /**
+         * The blocking client decompresses responses on its own, the async client leaves that to us
+         */
+        private HttpEntity decode(HttpResponse response) {
+            HttpEntity entity = response.getEntity();
+
+            if (entity != null && entity.getContentEncoding() != null) {
+                String encoding = entity.getContentEncoding().getValue().trim().toLowerCase();
+
+                if (encoding.equals("gzip") || encoding.equals("x-gzip"))
+                    entity = new GzipDecompressingEntity(entity);
+                else if (encoding.equals("deflate"))
+                    entity = new DeflateDecompressingEntity(entity);
+            }
+
+            return entity;
+        }
+
+        /**
+         * Serve the call from the cache if a fresh entry exists, otherwise make the request conditional
+         * if a stale entry can be revalidated.
+         *
+         * @return The cached result or null if the request must be performed
+         */
+        private JsonResult checkCache(Class<? extends JsonStructure> returnType) {
+            cacheKey = null;
+            cached = null;
+
+            if (cache == null || returnType == null || !(request instanceof HttpGet))
+                return null;
+
+            cacheKey = getCacheKey();
+            cached = cache.get(cacheKey);
+
+            if (cached == null)
+                return null;
+
+            if (cached.isFresh()) {
+                cache.hit();
+                return toResult(returnType, cached.toResponse(), cached.getContent(), cached.getData());
+            }
+
+            cached.addConditionalHeaders(request);
+            return null;
+        }
+
+        /**
+         * Responses are cached per URI and per user, so different credentials never see each other's data
+         */
+        private String getCacheKey() {
+            StringBuilder key = new StringBuilder(request.getMethod()).append(' ');
+
+            if (host != null)
+                key.append(host.toURI());
+
+            key.append(request.getURI());
+
+            Header authorization = request.getFirstHeader("Authorization");
+            if (authorization != null)
+                key.append(' ').append(authorization.getValue());
+
+            if (credentialsProvider != null && host != null) {
+                Credentials credentials = credentialsProvider.getCredentials(new AuthScope(host));
+                if (credentials != null && credentials.getUserPrincipal() != null)
+                    key.append(' ').append(credentials.getUserPrincipal().getName());
+            }
+
+            return key.toString();
+        }
+
+        private JsonResult toResult(Class<? extends JsonStructure> returnType, HttpResponse response) throws Exception {
+            if (returnType != null) {
+                if (cached != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                    EntityUtils.consume(response.getEntity());
+                    cache.revalidated();
+                    cache.refresh(cacheKey, cached, response);
+                    return toResult(returnType, cached.toResponse(), cached.getContent(), cached.getData());
+                }
+
+                JsonCodec codec = getCodec();
+                HttpEntity entity = decode(response);
+                String content = null;
+                JsonStructure jsonStructure = null;
+
+                if (streamParsing) {
+                    if (entity != null && entity.getContentLength() != 0) {
+                        try (InputStream input = entity.getContent(); JsonParser parser = codec.createParser(input)) {
+                            jsonStructure = JsonStreams.read(codec, parser);
                         }
                     }
+                } else {
+                    content = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+
+                    if (content != null && !content.isEmpty())
+                        jsonStructure = codec.read(new StringReader(content));
                 }
 
-                EntityUtils.consume(response.getEntity());
+                if (cacheKey != null) {
+                    cache.miss();
+                    cache.store(cacheKey, response, content, jsonStructure);
+                }
 
-                return new JsonEmptyResult(response);
+                return toResult(returnType, response, content, jsonStructure);
+            }
 
-            } catch (Exception ex) {
-                if (returnType == null)
-                    return new JsonEmptyResult(response, ex);
-                else if (returnType.equals(JsonArray.class)) {
-                    return new JsonArrayResult(response, ex);
+            EntityUtils.consume(response.getEntity());
+
+            return new JsonEmptyResult(response);
+        }
+
+        private JsonResult toResult(Class<? extends JsonStructure> returnType, HttpResponse response, String content, JsonStructure jsonStructure) {
+            if (returnType.equals(JsonArray.class)) {
+                if (jsonStructure == null)
+                    return new JsonArrayResult(response, getCodec().createArrayBuilder().build(), content);
+
+                if (jsonStructure instanceof JsonArray) {
+                    return new JsonArrayResult(response, (JsonArray) jsonStructure, content);
                 } else {
-                    return new JsonObjectResult(response, ex);
+                    return new JsonArrayResult(response, getCodec().createArrayBuilder().add(jsonStructure).build(), content);
                 }
-            } finally {
-                ongoingRequests.remove(request);
+            } else {
+                if (jsonStructure == null)
+                    return new JsonObjectResult(response, getCodec().createObjectBuilder().build(), content);
+
+                if (jsonStructure instanceof JsonArray) {
+                    JsonArray a = (JsonArray) jsonStructure;
+
+                    if (a.isEmpty())
+                        return new JsonObjectResult(response, getCodec().createObjectBuilder().build(), content);
+                    else
+                        return new JsonObjectResult(response, a.getJsonObject(0), content);
+                } else {
+                    return new JsonObjectResult(response, (JsonObject) jsonStructure, content);
+                }
+            }
+        }
+
+        private JsonResult toErrorResult(Class<? extends JsonStructure> returnType, HttpResponse response, Exception ex) {
+            if (returnType == null)
+                return new JsonEmptyResult(response, ex);
+            else if (returnType.equals(JsonArray.class)) {
+                return new JsonArrayResult(response, ex);
+            } else {
+                return new JsonObjectResult(response, ex);
+            }
+        }
+
+    }
+
+    /**
+     * A group of calls performed concurrently on the non blocking client. At most parallelism calls are in flight
+     * at the same time, and the results are returned in the order the calls were added.
+     * <p/>
+     * If the backend offers a bulk endpoint, a combiner can merge the calls into a single request. The elements
+     * of the array it returns are handed out to the calls by position, or by the given splitter.
+     */
+    @SuppressWarnings("unused")
+    public class Batch {
+        private final List<JsonCall> calls = new ArrayList<>();
+        private int parallelism = maxConnectionsPerRoute;
+        private Function<List<JsonCall>, JsonCall> combiner;
+        private BiFunction<List<JsonCall>, JsonArray, List<? extends JsonValue>> splitter;
+
+        public Batch add(JsonCall call) {
+            calls.add(call);
+            return this;
+        }
+
+        public Batch add(Collection<JsonCall> calls) {
+            this.calls.addAll(calls);
+            return this;
+        }
+
+        /**
+         * @param parallelism The maximum number of calls in flight at the same time
+         */
+        public Batch parallelism(int parallelism) {
+            if (parallelism < 1)
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Merge the calls into one request to a bulk endpoint that returns an array with one element per call, in call order
+         */
+        public Batch combine(Function<List<JsonCall>, JsonCall> combiner) {
+            return combine(combiner, (calls, array) -> array);
+        }
+
+        /**
+         * Merge the calls into one request to a bulk endpoint
+         *
+         * @param combiner Creates the bulk call from the calls in the batch
+         * @param splitter Picks the element for each call out of the bulk response, returning one element per call in call order
+         */
+        public Batch combine(Function<List<JsonCall>, JsonCall> combiner, BiFunction<List<JsonCall>, JsonArray, List<? extends JsonValue>> splitter) {
+            this.combiner = combiner;
+            this.splitter = splitter;
+            return this;
+        }
+
+        public List<JsonObjectResult> one() {
+            return join(oneAsync());
+        }
+
+        public List<JsonArrayResult> list() {
+            return join(listAsync());
+        }
+
+        public List<JsonEmptyResult> execute() {
+            return join(executeAsync());
+        }
+
+        public CompletableFuture<List<JsonObjectResult>> oneAsync() {
+            return oneAsync(null);
+        }
+
+        public CompletableFuture<List<JsonObjectResult>> oneAsync(Component receiver) {
+            return deliver(run(JsonObject.class, JsonCall::oneAsync), receiver);
+        }
+
+        public CompletableFuture<List<JsonArrayResult>> listAsync() {
+            return listAsync(null);
+        }
+
+        public CompletableFuture<List<JsonArrayResult>> listAsync(Component receiver) {
+            return deliver(run(JsonArray.class, JsonCall::listAsync), receiver);
+        }
+
+        public CompletableFuture<List<JsonEmptyResult>> executeAsync() {
+            return executeAsync(null);
+        }
+
+        public CompletableFuture<List<JsonEmptyResult>> executeAsync(Component receiver) {
+            return deliver(run(null, JsonCall::executeAsync), receiver);
+        }
+
+        private <R extends JsonResult> CompletableFuture<List<R>> run(Class<? extends JsonStructure> returnType, Function<JsonCall, CompletableFuture<R>> perform) {
+            List<JsonCall> calls = new ArrayList<>(this.calls);
+
+            if (combiner != null && calls.size() > 1) {
+                JsonCall bulk = combiner.apply(Collections.unmodifiableList(calls));
+                return bulk.executeAsync(JsonArray.class).thenApply(result -> split(calls, returnType, (JsonArrayResult) result));
             }
+
+            return new Window<>(calls, perform).start(parallelism);
         }
 
+        private <R extends JsonResult> List<R> split(List<JsonCall> calls, Class<? extends JsonStructure> returnType, JsonArrayResult bulk) {
+            List<R> results = new ArrayList<>(calls.size());
+            HttpResponse response = bulk.getResponse();
+            Exception error = bulk.getError();
+            int status = bulk.getStatusCode();
+
+            // Any 2xx status is a success, bulk endpoints often answer 207 Multi-Status
+            if (error == null && (status < 200 || status >= 300))
+                error = new HttpResponseException(status, response.getStatusLine().getReasonPhrase());
+
+            List<? extends JsonValue> elements = error == null && returnType != null ? splitter.apply(Collections.unmodifiableList(calls), bulk.getData()) : null;
+
+            if (elements != null && elements.size() != calls.size())
+                throw new IllegalStateException(String.format("Bulk response has %d elements for %d calls", elements.size(), calls.size()));
+
+            for (int i = 0; i < calls.size(); i++) {
+                JsonResult result;
+
+                if (error != null) {
+                    result = calls.get(i).toErrorResult(returnType, response, error);
+                } else if (returnType == null) {
+                    result = new JsonEmptyResult(response);
+                } else {
+                    JsonValue element = elements.get(i);
+                    JsonStructure structure = element instanceof JsonStructure ? (JsonStructure) element : null;
+                    result = calls.get(i).toResult(returnType, response, structure == null ? null : structure.toString(), structure);
+                }
+
+                results.add((R) sequence(result));
+            }
+
+            return results;
+        }
+    }
+
+    /**
+     * Performs a list of calls with a bounded number in flight. Each completed call starts the next one.
+     */
+    private static class Window<R extends JsonResult> {
+        private final List<JsonCall> calls;
+        private final Function<JsonCall, CompletableFuture<R>> perform;
+        private final AtomicReferenceArray<R> results;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<R>> done = new CompletableFuture<>();
+
+        Window(List<JsonCall> calls, Function<JsonCall, CompletableFuture<R>> perform) {
+            this.calls = calls;
+            this.perform = perform;
+            this.results = new AtomicReferenceArray<>(calls.size());
+            this.remaining = new AtomicInteger(calls.size());
+        }
+
+        CompletableFuture<List<R>> start(int parallelism) {
+            if (calls.isEmpty())
+                done.complete(new ArrayList<>());
+
+            for (int i = 0; i < Math.min(parallelism, calls.size()); i++)
+                startNext();
+
+            return done;
+        }
+
+        private void startNext() {
+            int index;
+
+            // Calls that complete at once (e.g. from the cache) continue in this loop instead of recursing
+            while ((index = next.getAndIncrement()) < calls.size()) {
+                CompletableFuture<R> future;
+
+                try {
+                    future = perform.apply(calls.get(index));
+                } catch (Exception ex) {
+                    done.completeExceptionally(ex);
+                    return;
+                }
+
+                int i = index;
+
+                if (future.isDone() && !future.isCompletedExceptionally()) {
+                    complete(i, future.join());
+                    continue;
+                }
+
+                future.whenComplete((result, error) -> {
+                    if (error != null) {
+                        done.completeExceptionally(error);
+                    } else {
+                        complete(i, result);
+                        startNext();
+                    }
+                });
+
+                return;
+            }
+        }
+
+        private void complete(int index, R result) {
+            results.set(index, result);
+
+            if (remaining.decrementAndGet() == 0) {
+                List<R> list = new ArrayList<>(results.length());
+                for (int i = 0; i < results.length(); i++)
+                    list.add(results.get(i));
+                done.complete(list);
+            }
+        }
+    }
+
+    private JsonResult sequence(JsonResult result) {
+        long seq = atomicseq.addAndGet(1L);
+
+        if (result instanceof JsonArrayResult)
+            ((JsonArrayResult) result).seq = seq;
+        else if (result instanceof JsonObjectResult)
+            ((JsonObjectResult) result).seq = seq;
+        else if (result instanceof JsonEmptyResult)
+            ((JsonEmptyResult) result).seq = seq;
+
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+
+            throw ex;
+        }
+    }
+
+    /**
+     * A result of its own for a call that shared the request of another call, so the sequence
+     * numbers of the two calls are kept apart
+     */
+    private static JsonResult copyOf(JsonResult result) {
+        if (result instanceof JsonArrayResult) {
+            JsonArrayResult r = (JsonArrayResult) result;
+            return r.getError() != null ? new JsonArrayResult(r.getResponse(), r.getError()) : new JsonArrayResult(r.getResponse(), r.getData(), r.getContent());
+        } else if (result instanceof JsonObjectResult) {
+            JsonObjectResult r = (JsonObjectResult) result;
+            return r.getError() != null ? new JsonObjectResult(r.getResponse(), r.getError()) : new JsonObjectResult(r.getResponse(), r.getData(), r.getContent());
+        } else {
+            return new JsonEmptyResult(result.getResponse(), result.getError());
+        }
+    }
+
+    /**
+     * Complete the returned future in the thread the receiver expects, i.e. the FX thread for UIComponents
+     */
+    private static <T> CompletableFuture<T> deliver(CompletableFuture<T> future, Component receiver) {
+        if (receiver == null || !receiver.isUIComponent())
+            return future;
+
+        CompletableFuture<T> delivered = new CompletableFuture<>();
+
+        future.whenComplete((result, error) -> FX.submit(() -> {
+            if (error != null)
+                delivered.completeExceptionally(error);
+            else
+                delivered.complete(result);
+        }, receiver));
+
+        return delivered;
     }
 
     public CredentialsProvider getCredentialsProvider() {
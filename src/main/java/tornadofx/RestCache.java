@@ -0,0 +1,349 @@
+package tornadofx;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+
+import javax.json.JsonStructure;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Response cache for GET calls made through a Rest instance.
+ * <p/>
+ * Entries are kept in memory in least recently used order up to the given number of entries, and
+ * optionally mirrored to a directory so they survive a restart. Freshness follows the Cache-Control
+ * max-age or Expires header of the response. A fresh entry is served without touching the network,
+ * a stale entry with an ETag or Last-Modified header is revalidated with a conditional request, and
+ * a 304 reply reuses the already parsed JSON. Responses marked no-store are never cached.
+ * <p/>
+ * The cache is private to the client, so responses marked private are cached as well.
+ */
+public class RestCache {
+	private final int maxEntries;
+	private final Path directory;
+	private final Map<String, Entry> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+
+	public RestCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * @param maxEntries The number of responses to keep in memory
+	 * @param directory  Directory to persist responses in, or null to keep them in memory only
+	 */
+	public RestCache(int maxEntries, Path directory) {
+		this.maxEntries = maxEntries;
+		this.directory = directory;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > RestCache.this.maxEntries;
+			}
+		};
+
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of calls served from the cache without a network round trip
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of calls that downloaded and parsed a full response
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The number of calls answered with 304 Not Modified, reusing the cached response
+	 */
+	public long getRevalidations() {
+		return revalidations.sum();
+	}
+
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		revalidations.reset();
+	}
+
+	/**
+	 * Remove all entries from memory and from the cache directory
+	 */
+	public synchronized void clear() {
+		entries.clear();
+
+		if (directory != null) {
+			try (Stream<Path> files = Files.list(directory)) {
+				files.filter(path -> path.toString().endsWith(".cache")).forEach(path -> path.toFile().delete());
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	synchronized Entry get(String key) {
+		Entry entry = entries.get(key);
+
+		if (entry == null && directory != null) {
+			entry = load(key);
+
+			if (entry != null)
+				entries.put(key, entry);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Store a 200 response unless it forbids caching or carries nothing to revalidate or expire with.
+	 */
+	void store(String key, HttpResponse response, String content, JsonStructure data) {
+		if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK)
+			return;
+
+		Entry entry = new Entry();
+		entry.content = content;
+		entry.data = data;
+
+		Header contentType = response.getFirstHeader("Content-Type");
+		if (contentType != null)
+			entry.contentType = contentType.getValue();
+
+		if (!entry.update(response) || (entry.etag == null && entry.lastModified == null && entry.expires <= System.currentTimeMillis()))
+			return;
+
+		put(key, entry);
+	}
+
+	/**
+	 * Take over the validators and expiry from a 304 response for an entry that was revalidated
+	 */
+	synchronized void refresh(String key, Entry entry, HttpResponse response) {
+		if (entry.update(response))
+			put(key, entry);
+		else
+			entries.remove(key);
+	}
+
+	synchronized void put(String key, Entry entry) {
+		entries.put(key, entry);
+
+		if (directory != null)
+			save(key, entry);
+	}
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void revalidated() {
+		revalidations.increment();
+	}
+
+	private Entry load(String key) {
+		File file = directory.resolve(fileName(key)).toFile();
+
+		if (!file.isFile())
+			return null;
+
+		Properties props = new Properties();
+
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			props.load(reader);
+		} catch (IOException ex) {
+			return null;
+		}
+
+		if (!digest(key).equals(props.getProperty("key")))
+			return null;
+
+		Entry entry = new Entry();
+		entry.etag = props.getProperty("etag");
+		entry.lastModified = props.getProperty("lastModified");
+		entry.contentType = props.getProperty("contentType");
+		entry.expires = Long.parseLong(props.getProperty("expires", "0"));
+		entry.content = props.getProperty("content");
+		return entry;
+	}
+
+	private void save(String key, Entry entry) {
+		Properties props = new Properties();
+		// The key holds the credentials of the call, only its digest may be written to disk
+		props.setProperty("key", digest(key));
+		props.setProperty("expires", String.valueOf(entry.expires));
+		props.setProperty("content", entry.content != null ? entry.content : entry.data != null ? entry.data.toString() : "");
+		if (entry.etag != null)
+			props.setProperty("etag", entry.etag);
+		if (entry.lastModified != null)
+			props.setProperty("lastModified", entry.lastModified);
+		if (entry.contentType != null)
+			props.setProperty("contentType", entry.contentType);
+
+		Path target = directory.resolve(fileName(key));
+
+		try {
+			Path temp = Files.createTempFile(directory, "rest", ".tmp");
+
+			try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8)) {
+				props.store(writer, null);
+			}
+
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			// The memory copy is still valid, the disk copy is only an optimization
+			target.toFile().delete();
+		}
+	}
+
+	private static String fileName(String key) {
+		return digest(key) + ".cache";
+	}
+
+	private static String digest(String key) {
+		try {
+			StringBuilder digest = new StringBuilder();
+
+			for (byte b : MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8)))
+				digest.append(String.format("%02x", b));
+
+			return digest.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	static class Entry {
+		private String etag;
+		private String lastModified;
+		private String contentType;
+		private volatile long expires;
+		private String content;
+		private volatile JsonStructure data;
+
+		boolean isFresh() {
+			return expires > System.currentTimeMillis();
+		}
+
+		String getContent() {
+			return content;
+		}
+
+		/**
+		 * The parsed response. Entries loaded from disk are parsed on first use.
+		 */
+		JsonStructure getData() {
+			JsonStructure result = data;
+
+			if (result == null && content != null && !content.isEmpty()) {
+				data = result = JsonCodec.getDefault().read(new StringReader(content));
+			}
+
+			return result;
+		}
+
+		void addConditionalHeaders(HttpRequestBase request) {
+			if (etag != null)
+				request.setHeader("If-None-Match", etag);
+			if (lastModified != null)
+				request.setHeader("If-Modified-Since", lastModified);
+		}
+
+		/**
+		 * Take over the validators and expiry from a 200 or 304 response
+		 *
+		 * @return false if the response must not be stored
+		 */
+		boolean update(HttpResponse response) {
+			Header etagHeader = response.getFirstHeader("ETag");
+			if (etagHeader != null)
+				etag = etagHeader.getValue();
+
+			Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
+			if (lastModifiedHeader != null)
+				lastModified = lastModifiedHeader.getValue();
+
+			expires = 0;
+			Long maxAge = null;
+
+			for (Header header : response.getHeaders("Cache-Control")) {
+				for (String directive : header.getValue().split(",")) {
+					directive = directive.trim().toLowerCase();
+
+					if (directive.equals("no-store"))
+						return false;
+
+					if (directive.equals("no-cache"))
+						maxAge = 0L;
+					else if (directive.startsWith("max-age=") && maxAge == null) {
+						try {
+							maxAge = Long.parseLong(directive.substring(8).replace("\"", ""));
+						} catch (NumberFormatException ignored) {
+						}
+					}
+				}
+			}
+
+			if (maxAge != null) {
+				expires = System.currentTimeMillis() + maxAge * 1000;
+			} else {
+				Header expiresHeader = response.getFirstHeader("Expires");
+				if (expiresHeader != null) {
+					Date date = DateUtils.parseDate(expiresHeader.getValue());
+					if (date != null)
+						expires = date.getTime();
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * A 200 response standing in for the one that was cached, so results served from the cache look like
+		 * any other successful result
+		 */
+		HttpResponse toResponse() {
+			BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+			if (etag != null)
+				response.setHeader("ETag", etag);
+			if (lastModified != null)
+				response.setHeader("Last-Modified", lastModified);
+			if (contentType != null)
+				response.setHeader("Content-Type", contentType);
+			return response;
+		}
+	}
+}
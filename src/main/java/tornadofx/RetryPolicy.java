@@ -0,0 +1,98 @@
+package tornadofx;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides if and when a failed Rest call is performed again. Only idempotent methods are retried,
+ * after an I/O error or one of the retry status codes. The delay grows exponentially from the
+ * initial delay up to the max delay, and is reduced by a random share of up to jitter so clients
+ * that failed together do not come back together. A Retry-After header from the server takes
+ * precedence, but a call is given up rather than delayed beyond the max delay.
+ *
+ * @see Rest#setRetryPolicy(RetryPolicy)
+ */
+@SuppressWarnings("unused")
+public class RetryPolicy {
+	private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE"));
+
+	/**
+	 * Total number of attempts, including the first one
+	 */
+	@Getter
+	@Setter
+	private int maxAttempts = 3;
+	/**
+	 * Delays are in milliseconds
+	 */
+	@Getter
+	@Setter
+	private long initialDelay = 200;
+	@Getter
+	@Setter
+	private long maxDelay = 10000;
+	@Getter
+	@Setter
+	private double multiplier = 2;
+	@Getter
+	@Setter
+	private double jitter = 0.5;
+	@Getter
+	private final Set<Integer> retryStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+	/**
+	 * @param method   The HTTP method of the call
+	 * @param attempt  The number of attempts made so far, starting at 1
+	 * @param response The response of the last attempt, if any
+	 * @param error    The error of the last attempt, if any
+	 * @return The number of milliseconds to wait before the next attempt, or -1 to give up
+	 */
+	public long getDelay(String method, int attempt, HttpResponse response, Exception error) {
+		if (attempt >= maxAttempts || !IDEMPOTENT_METHODS.contains(method) || !isRetryable(response, error))
+			return -1;
+
+		Long retryAfter = getRetryAfter(response);
+		if (retryAfter != null)
+			return retryAfter <= maxDelay ? retryAfter : -1;
+
+		double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempt - 1));
+		return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+	}
+
+	protected boolean isRetryable(HttpResponse response, Exception error) {
+		if (error instanceof IOException)
+			return true;
+
+		return error == null && response != null && retryStatusCodes.contains(response.getStatusLine().getStatusCode());
+	}
+
+	/**
+	 * @return The delay requested by a Retry-After header in seconds or as a date, or null if there is none
+	 */
+	private static Long getRetryAfter(HttpResponse response) {
+		Header header = response != null ? response.getFirstHeader("Retry-After") : null;
+
+		if (header == null)
+			return null;
+
+		String value = header.getValue().trim();
+
+		try {
+			return Math.max(0, Long.parseLong(value) * 1000);
+		} catch (NumberFormatException ignored) {
+		}
+
+		Date date = DateUtils.parseDate(value);
+		return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : null;
+	}
+}
@@ -0,0 +1,196 @@
+package tornadofx.processor;
+
+import tornadofx.ComponentInjector;
+import tornadofx.Inject;
+import tornadofx.OnEvent;
+import tornadofx.Requires;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@link ComponentInjector} for every component class that declares @Inject fields,
+ * @OnEvent methods or a @Requires annotation. The injector is placed in the package of the component,
+ * so it can assign package visible fields and call package visible methods directly.
+ * <p/>
+ * Components with private or final @Inject fields, private @OnEvent methods or without an accessible
+ * no-arg constructor are skipped with a note, and InjectionContext keeps using reflection for them.
+ */
+@SupportedAnnotationTypes({"tornadofx.Inject", "tornadofx.OnEvent", "tornadofx.Requires"})
+public class InjectionProcessor extends AbstractProcessor {
+
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		Set<TypeElement> components = new LinkedHashSet<>();
+
+		for (Element element : round.getElementsAnnotatedWith(Inject.class))
+			components.add((TypeElement) element.getEnclosingElement());
+
+		for (Element element : round.getElementsAnnotatedWith(OnEvent.class))
+			components.add((TypeElement) element.getEnclosingElement());
+
+		components.addAll(ElementFilter.typesIn(round.getElementsAnnotatedWith(Requires.class)));
+
+		for (TypeElement component : components) {
+			String problem = getUnsupportedReason(component);
+
+			if (problem == null)
+				generate(component);
+			else
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+					String.format("No injector generated for %s, %s. Reflection will be used instead.", component, problem), component);
+		}
+
+		return false;
+	}
+
+	private String getUnsupportedReason(TypeElement component) {
+		Set<Modifier> modifiers = component.getModifiers();
+
+		if (modifiers.contains(Modifier.ABSTRACT))
+			return "it is abstract";
+
+		if (modifiers.contains(Modifier.PRIVATE))
+			return "it is private";
+
+		if (component.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC))
+			return "it is an inner class";
+
+		boolean constructor = false;
+		for (ExecutableElement candidate : ElementFilter.constructorsIn(component.getEnclosedElements()))
+			if (candidate.getParameters().isEmpty() && !candidate.getModifiers().contains(Modifier.PRIVATE))
+				constructor = true;
+
+		if (!constructor)
+			return "it has no accessible no-arg constructor";
+
+		for (VariableElement field : getInjectFields(component))
+			if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL))
+				return String.format("the @Inject field %s is private or final", field.getSimpleName());
+
+		for (ExecutableElement method : getEventMethods(component))
+			if (method.getModifiers().contains(Modifier.PRIVATE))
+				return String.format("the @OnEvent method %s is private", method.getSimpleName());
+
+		return null;
+	}
+
+	private void generate(TypeElement component) {
+		Types types = processingEnv.getTypeUtils();
+		String packageName = processingEnv.getElementUtils().getPackageOf(component).getQualifiedName().toString();
+		String componentName = component.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(component).toString();
+		String injectorName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + ComponentInjector.SUFFIX;
+
+		List<String> dependencies = new ArrayList<>();
+		for (TypeMirror dependency : getRequires(component))
+			dependencies.add(types.erasure(dependency) + ".class");
+		for (VariableElement field : getInjectFields(component))
+			dependencies.add(types.erasure(field.asType()) + ".class");
+
+		StringBuilder source = new StringBuilder();
+
+		if (!packageName.isEmpty())
+			source.append("package ").append(packageName).append(";\n\n");
+
+		source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+			.append("public final class ").append(injectorName).append(" implements tornadofx.ComponentInjector<").append(componentName).append("> {\n")
+			.append("\tpublic ").append(componentName).append(" create() {\n")
+			.append("\t\treturn new ").append(componentName).append("();\n")
+			.append("\t}\n\n")
+			.append("\tpublic java.util.List<Class<? extends tornadofx.Component>> getDependencies() {\n")
+			.append("\t\treturn java.util.Arrays.<Class<? extends tornadofx.Component>>asList(").append(String.join(", ", dependencies)).append(");\n")
+			.append("\t}\n\n")
+			.append("\tpublic void inject(").append(componentName).append(" component) {\n");
+
+		for (VariableElement field : getInjectFields(component))
+			source.append("\t\tcomponent.").append(field.getSimpleName()).append(" = (").append(field.asType()).append(") tornadofx.InjectionContext.get(")
+				.append(types.erasure(field.asType())).append(".class);\n");
+
+		source.append("\t}\n\n")
+			.append("\tpublic void subscribe(").append(componentName).append(" component, tornadofx.EventSubscriber subscriber) {\n");
+
+		for (ExecutableElement method : getEventMethods(component)) {
+			OnEvent config = method.getAnnotation(OnEvent.class);
+			TypeMirror eventType = method.getParameters().get(0).asType();
+
+			source.append("\t\tsubscriber.subscribe(\"").append(method.getSimpleName()).append("\", ")
+				.append(types.erasure(eventType)).append(".class, component::").append(method.getSimpleName()).append(", ")
+				.append("tornadofx.Conflation.").append(config.conflate()).append(", ")
+				.append("tornadofx.EventThread.").append(config.thread()).append(", ")
+				.append(processingEnv.getElementUtils().getConstantExpression(config.executor())).append(");\n");
+		}
+
+		source.append("\t}\n")
+			.append("}\n");
+
+		String sourceName = packageName.isEmpty() ? injectorName : packageName + "." + injectorName;
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile(sourceName, component).openWriter()) {
+			writer.write(source.toString());
+		} catch (IOException ex) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+				String.format("Unable to generate injector for %s: %s", component, ex.getMessage()), component);
+		}
+	}
+
+	/**
+	 * Fields are listed in declaration order, like the reflective scan in InjectionContext
+	 */
+	private List<VariableElement> getInjectFields(TypeElement component) {
+		List<VariableElement> fields = new ArrayList<>();
+		TypeMirror componentType = processingEnv.getElementUtils().getTypeElement("tornadofx.Component").asType();
+
+		for (VariableElement field : ElementFilter.fieldsIn(component.getEnclosedElements()))
+			if (field.getAnnotation(Inject.class) != null && processingEnv.getTypeUtils().isAssignable(field.asType(), componentType))
+				fields.add(field);
+
+		return fields;
+	}
+
+	private List<ExecutableElement> getEventMethods(TypeElement component) {
+		List<ExecutableElement> methods = new ArrayList<>();
+		TypeMirror eventType = processingEnv.getElementUtils().getTypeElement("tornadofx.FXEvent").asType();
+
+		for (ExecutableElement method : ElementFilter.methodsIn(component.getEnclosedElements())) {
+			if (method.getAnnotation(OnEvent.class) == null || method.getParameters().size() != 1)
+				continue;
+
+			TypeMirror parameterType = method.getParameters().get(0).asType();
+			Element parameterElement = processingEnv.getTypeUtils().asElement(parameterType);
+
+			if (processingEnv.getTypeUtils().isAssignable(parameterType, eventType) || (parameterElement != null && parameterElement.getKind() == ElementKind.INTERFACE))
+				methods.add(method);
+		}
+
+		return methods;
+	}
+
+	private List<TypeMirror> getRequires(TypeElement component) {
+		List<TypeMirror> requires = new ArrayList<>();
+
+		for (AnnotationMirror annotation : component.getAnnotationMirrors()) {
+			if (!annotation.getAnnotationType().toString().equals(Requires.class.getName()))
+				continue;
+
+			for (AnnotationValue value : annotation.getElementValues().values()) {
+				for (Object item : (List<?>) value.getValue())
+					requires.add((DeclaredType) ((AnnotationValue) item).getValue());
+			}
+		}
+
+		return requires;
+	}
+}
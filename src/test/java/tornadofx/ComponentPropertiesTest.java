@@ -0,0 +1,107 @@
+package tornadofx;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes to a temporary folder with short delays. Errors are received by a Controller, which gets its
+ * events in the publishing thread, so no FX toolkit is needed.
+ */
+public class ComponentPropertiesTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 30000)
+	public void burstOfChangesIsWrittenOnceIdle() throws Exception {
+		Path path = folder.getRoot().toPath().resolve("conf").resolve("Burst.properties");
+		ComponentProperties store = new ComponentProperties(path, null, millis(300), millis(100));
+
+		// Each change postpones the write, so nothing is written while the changes keep coming
+		for (int i = 0; i < 10; i++) {
+			store.set("width", String.valueOf(i));
+			Thread.sleep(50);
+			assertFalse(Files.exists(path));
+		}
+
+		await(() -> Files.exists(path));
+
+		assertEquals("9", read(path).getProperty("width"));
+	}
+
+	@Test(timeout = 30000)
+	public void failedWriteIsRetriedAndReportedOnce() throws Exception {
+		ErrorCounter errors = InjectionContext.get(ErrorCounter.class);
+
+		// A file in place of the directory makes every write fail
+		Path dir = folder.getRoot().toPath().resolve("conf");
+		Files.createFile(dir);
+
+		Path path = dir.resolve("Retry.properties");
+		ComponentProperties store = new ComponentProperties(path, errors, millis(10), millis(50));
+		store.set("width", "42");
+
+		Thread.sleep(500);
+		assertEquals(1, errors.received.get());
+
+		Files.delete(dir);
+		await(() -> Files.exists(path));
+
+		assertEquals("42", read(path).getProperty("width"));
+		assertEquals(1, errors.received.get());
+
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	private static long millis(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	private static Properties read(Path path) throws IOException {
+		Properties properties = new Properties();
+
+		try (InputStream input = Files.newInputStream(path)) {
+			properties.load(input);
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Wait up to ten seconds for the condition to become true
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+
+		assertTrue(condition.getAsBoolean());
+	}
+
+	static class ErrorCounter extends Controller {
+		final AtomicInteger received = new AtomicInteger();
+
+		@OnEvent
+		void onError(UIError error) {
+			if (error.getSource() == this)
+				received.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package tornadofx;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Subscribes, unsubscribes and publishes from many threads at once. Controllers receive events in the
+ * publishing thread when it is not the FX thread, so no FX toolkit is needed and every delivery can be
+ * counted when the threads are done.
+ */
+public class EventBusConcurrencyTest {
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 2000;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+	private final List<Counter> subscribed = new ArrayList<>();
+
+	@After
+	public void cleanup() throws Exception {
+		executor.shutdownNow();
+
+		for (Counter counter : subscribed)
+			counter.unsubscribe();
+	}
+
+	@Test
+	public void concurrentSubscribersAreAllRegistered() throws Exception {
+		List<Counter> counters = new ArrayList<>();
+		for (int i = 0; i < THREADS * 50; i++)
+			counters.add(new Counter());
+
+		subscribed.addAll(counters);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> tasks = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			int offset = t;
+
+			tasks.add(executor.submit(() -> {
+				start.await();
+
+				for (int i = offset; i < counters.size(); i += THREADS)
+					counters.get(i).subscribe();
+
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> task : tasks)
+			task.get(30, TimeUnit.SECONDS);
+
+		EventBus.publish(new StressEvent());
+
+		for (Counter counter : counters)
+			assertEquals(1, counter.received.get());
+	}
+
+	@Test
+	public void stableListenerSeesEveryEventWhileOthersComeAndGo() throws Exception {
+		Counter stable = new Counter();
+		stable.subscribe();
+		subscribed.add(stable);
+
+		AtomicBoolean publishing = new AtomicBoolean(true);
+		ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+		AtomicInteger published = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> churners = new ArrayList<>();
+		List<Future<?>> publishers = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			Counter churner = new Counter();
+			subscribed.add(churner);
+
+			churners.add(executor.submit(() -> {
+				start.await();
+
+				while (publishing.get()) {
+					try {
+						churner.subscribe();
+						churner.unsubscribe();
+					} catch (Throwable ex) {
+						errors.add(ex);
+					}
+				}
+
+				return null;
+			}));
+
+			publishers.add(executor.submit(() -> {
+				start.await();
+
+				for (int i = 0; i < ROUNDS; i++) {
+					try {
+						EventBus.publish(new StressEvent());
+						published.incrementAndGet();
+					} catch (Throwable ex) {
+						errors.add(ex);
+					}
+				}
+
+				return null;
+			}));
+		}
+
+		start.countDown();
+
+		for (Future<?> publisher : publishers)
+			publisher.get(60, TimeUnit.SECONDS);
+
+		publishing.set(false);
+
+		for (Future<?> churner : churners)
+			churner.get(60, TimeUnit.SECONDS);
+
+		assertTrue(errors.toString(), errors.isEmpty());
+		assertEquals(THREADS * ROUNDS, published.get());
+		assertEquals(THREADS * ROUNDS, stable.received.get());
+
+		// Every churning listener unsubscribed last, so only the stable listener is left
+		List<Integer> before = new ArrayList<>();
+		for (Counter counter : subscribed)
+			before.add(counter.received.get());
+
+		EventBus.publish(new StressEvent());
+
+		for (int i = 0; i < subscribed.size(); i++) {
+			Counter counter = subscribed.get(i);
+			assertEquals(before.get(i) + (counter == stable ? 1 : 0), counter.received.get());
+		}
+	}
+
+	static class StressEvent extends FXEvent {
+	}
+
+	static class Counter extends Controller {
+		private static final Method method;
+
+		static {
+			try {
+				method = Counter.class.getDeclaredMethod("onEvent", StressEvent.class);
+			} catch (NoSuchMethodException ex) {
+				throw new ExceptionInInitializerError(ex);
+			}
+		}
+
+		final AtomicInteger received = new AtomicInteger();
+
+		@OnEvent
+		void onEvent(StressEvent event) {
+			received.incrementAndGet();
+		}
+
+		void subscribe() {
+			EventBus.subscribe(this, method, method.getAnnotation(OnEvent.class));
+		}
+
+		void unsubscribe() {
+			EventBus.unsubscribe(this, method, method.getAnnotation(OnEvent.class));
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package tornadofx;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The FX toolkit is never started here, so the queue runs invocations in the submitting threads
+ */
+public class FXQueueTest {
+	private static final int THREADS = 4;
+	private static final int ROUNDS = 1000;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+	@After
+	public void cleanup() {
+		executor.shutdownNow();
+		FXQueue.setCapacity(Integer.MAX_VALUE);
+	}
+
+	@Test(timeout = 30000)
+	public void headlessInvocationsRunInOrder() throws Exception {
+		List<List<Integer>> seen = new ArrayList<>();
+		CountDownLatch done = new CountDownLatch(THREADS * ROUNDS);
+
+		for (int t = 0; t < THREADS; t++) {
+			List<Integer> values = new ArrayList<>();
+			seen.add(values);
+
+			executor.submit(() -> {
+				for (int i = 0; i < ROUNDS; i++) {
+					int value = i;
+					FXQueue.submit(() -> {
+						values.add(value);
+						done.countDown();
+					});
+				}
+			});
+		}
+
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(0, FXQueue.getDepth());
+
+		for (List<Integer> values : seen) {
+			assertEquals(ROUNDS, values.size());
+			for (int i = 0; i < ROUNDS; i++)
+				assertEquals(i, (int) values.get(i));
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void fullQueueDoesNotBlockTheHeadlessRunner() {
+		FXQueue.setCapacity(1);
+
+		int[] count = new int[1];
+
+		for (int i = 0; i < ROUNDS; i++) {
+			FXQueue.post(() -> {
+				// The posted invocation fills the queue, so the submit would wait for itself if it blocked
+				FXQueue.post(() -> count[0]++);
+				FXQueue.submit(() -> count[0]++);
+			});
+		}
+
+		assertEquals(ROUNDS * 2, count[0]);
+		assertEquals(0, FXQueue.getDepth());
+	}
+}
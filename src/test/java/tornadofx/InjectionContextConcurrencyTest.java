@@ -0,0 +1,238 @@
+package tornadofx;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Looks up controllers from many threads at once. Controllers need no FX toolkit, so the lookups run
+ * in plain threads. Every wait has a timeout, so a deadlock fails the test instead of hanging it.
+ */
+public class InjectionContextConcurrencyTest {
+	private static final int THREADS = 16;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+	@After
+	public void cleanup() {
+		executor.shutdownNow();
+		CycleA.barrier = null;
+	}
+
+	@Test
+	public void singletonIsCreatedOnce() throws Exception {
+		List<Component> instances = lookupConcurrently(Slow.class);
+
+		assertEquals(1, Slow.constructed.get());
+		for (Component instance : instances)
+			assertSame(instances.get(0), instance);
+	}
+
+	@Test
+	public void sharedDependencyIsCreatedOnce() throws Exception {
+		List<Future<Component>> lookups = new ArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+
+		for (int i = 0; i < THREADS; i++) {
+			Class<? extends Component> type = i % 2 == 0 ? Service.class : Repository.class;
+			lookups.add(executor.submit(() -> {
+				start.await();
+				return InjectionContext.get(type);
+			}));
+		}
+
+		start.countDown();
+
+		for (Future<Component> lookup : lookups)
+			lookup.get(30, TimeUnit.SECONDS);
+
+		assertEquals(1, Service.constructed.get());
+		assertEquals(1, Repository.constructed.get());
+
+		Service service = InjectionContext.get(Service.class);
+		assertSame(InjectionContext.get(Repository.class), service.repository);
+	}
+
+	@Test
+	public void constructorCycleInOneThreadFails() throws Exception {
+		Future<Component> lookup = executor.submit(() -> InjectionContext.get(SelfCycleA.class));
+
+		Throwable error = failure(lookup);
+		assertTrue(String.valueOf(error), isCycle(error));
+	}
+
+	@Test
+	public void constructorCycleAcrossThreadsDoesNotDeadlock() throws Exception {
+		CycleA.barrier = new CyclicBarrier(2);
+
+		CountDownLatch start = new CountDownLatch(1);
+		Future<Component> a = executor.submit(lookupAfter(start, CycleA.class));
+		Future<Component> b = executor.submit(lookupAfter(start, CycleB.class));
+		start.countDown();
+
+		Throwable errorA = failure(a);
+		Throwable errorB = failure(b);
+
+		assertTrue(String.valueOf(errorA), isCycle(errorA) || isCycle(errorB));
+	}
+
+	@Test
+	public void fieldCycleAcrossThreadsIsWired() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		Future<Component> a = executor.submit(lookupAfter(start, FieldCycleA.class));
+		Future<Component> b = executor.submit(lookupAfter(start, FieldCycleB.class));
+		start.countDown();
+
+		FieldCycleA first = (FieldCycleA) a.get(30, TimeUnit.SECONDS);
+		FieldCycleB second = (FieldCycleB) b.get(30, TimeUnit.SECONDS);
+
+		assertEquals(1, FieldCycleA.constructed.get());
+		assertEquals(1, FieldCycleB.constructed.get());
+
+		assertSame(first, InjectionContext.get(FieldCycleA.class));
+		assertSame(second, InjectionContext.get(FieldCycleB.class));
+		assertSame(second, first.b);
+		assertSame(first, second.a);
+	}
+
+	private List<Component> lookupConcurrently(Class<? extends Component> type) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Component>> lookups = new ArrayList<>();
+
+		for (int i = 0; i < THREADS; i++)
+			lookups.add(executor.submit(lookupAfter(start, type)));
+
+		start.countDown();
+
+		List<Component> instances = new ArrayList<>();
+		for (Future<Component> lookup : lookups)
+			instances.add(lookup.get(30, TimeUnit.SECONDS));
+
+		return instances;
+	}
+
+	private static Callable<Component> lookupAfter(CountDownLatch start, Class<? extends Component> type) {
+		return () -> {
+			start.await();
+			return InjectionContext.get(type);
+		};
+	}
+
+	private static Throwable failure(Future<Component> lookup) throws Exception {
+		try {
+			lookup.get(30, TimeUnit.SECONDS);
+		} catch (ExecutionException ex) {
+			return ex.getCause();
+		}
+
+		fail("Lookup of a cyclic dependency succeeded");
+		return null;
+	}
+
+	private static boolean isCycle(Throwable error) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause())
+			if (cause instanceof IllegalStateException && String.valueOf(cause.getMessage()).startsWith("Cyclic dependency"))
+				return true;
+
+		return false;
+	}
+
+	static class Slow extends Controller {
+		static final AtomicInteger constructed = new AtomicInteger();
+
+		Slow() throws InterruptedException {
+			constructed.incrementAndGet();
+			Thread.sleep(50);
+		}
+	}
+
+	static class Service extends Controller {
+		static final AtomicInteger constructed = new AtomicInteger();
+
+		@Inject Repository repository;
+
+		Service() throws InterruptedException {
+			constructed.incrementAndGet();
+			Thread.sleep(20);
+		}
+	}
+
+	static class Repository extends Controller {
+		static final AtomicInteger constructed = new AtomicInteger();
+
+		Repository() throws InterruptedException {
+			constructed.incrementAndGet();
+			Thread.sleep(20);
+		}
+	}
+
+	static class FieldCycleA extends Controller {
+		static final AtomicInteger constructed = new AtomicInteger();
+
+		@Inject FieldCycleB b;
+
+		FieldCycleA() throws InterruptedException {
+			constructed.incrementAndGet();
+			Thread.sleep(20);
+		}
+	}
+
+	static class FieldCycleB extends Controller {
+		static final AtomicInteger constructed = new AtomicInteger();
+
+		@Inject FieldCycleA a;
+
+		FieldCycleB() throws InterruptedException {
+			constructed.incrementAndGet();
+			Thread.sleep(20);
+		}
+	}
+
+	static class SelfCycleA extends Controller {
+		SelfCycleA() {
+			InjectionContext.get(SelfCycleB.class);
+		}
+	}
+
+	static class SelfCycleB extends Controller {
+		SelfCycleB() {
+			InjectionContext.get(SelfCycleA.class);
+		}
+	}
+
+	/**
+	 * Both constructors wait for each other before looking up the other component, so each lookup finds
+	 * the other component claimed by the other thread
+	 */
+	static class CycleA extends Controller {
+		static volatile CyclicBarrier barrier;
+
+		CycleA() throws Exception {
+			barrier.await(10, TimeUnit.SECONDS);
+			InjectionContext.get(CycleB.class);
+		}
+	}
+
+	static class CycleB extends Controller {
+		CycleB() throws Exception {
+			CycleA.barrier.await(10, TimeUnit.SECONDS);
+			InjectionContext.get(CycleA.class);
+		}
+	}
+}
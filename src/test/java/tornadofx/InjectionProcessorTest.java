@@ -0,0 +1,200 @@
+package tornadofx;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compiles a set of components once with the injection processor and once without it, and loads each
+ * compilation in its own class loader. The two sets are separate singletons, so the generated injectors
+ * and the reflective path can be compared side by side.
+ */
+@SuppressWarnings("unchecked")
+public class InjectionProcessorTest {
+	private static final String[][] SOURCES = {
+		{ "fixture.Service", "public class Service extends Controller { }" },
+		{ "fixture.Audit", "public class Audit extends Controller { }" },
+		{ "fixture.Refresh", "public class Refresh extends FXEvent { }" },
+		{ "fixture.Repository", "public class Repository extends Controller { @Inject Service service; }" },
+		{ "fixture.Wired", "@Requires(Audit.class) public class Wired extends Controller {\n" +
+			"	@Inject Service service;\n" +
+			"	@Inject protected Repository repository;\n" +
+			"	public int refreshed;\n" +
+			"	@OnEvent void refresh(Refresh event) { refreshed++; }\n" +
+			"}" },
+		{ "fixture.PrivateField", "public class PrivateField extends Controller { @Inject private Service service; }" },
+		{ "fixture.FinalField", "public class FinalField extends Controller { @Inject final Service service = null; }" },
+		{ "fixture.PrivateMethod", "public class PrivateMethod extends Controller { @OnEvent private void refresh(Refresh event) { } }" },
+		{ "fixture.AbstractMethod", "public abstract class AbstractMethod extends Controller {\n" +
+			"	@Inject Service service;\n" +
+			"	@OnEvent abstract void refresh(Refresh event);\n" +
+			"}" },
+		{ "fixture.NoDefaultConstructor", "public class NoDefaultConstructor extends Controller {\n" +
+			"	@Inject Service service;\n" +
+			"	public NoDefaultConstructor(String name) { }\n" +
+			"}" }
+	};
+
+	private static final List<String> SKIPPED = Arrays.asList("PrivateField", "FinalField", "PrivateMethod", "AbstractMethod", "NoDefaultConstructor");
+
+	@ClassRule
+	public static final TemporaryFolder folder = new TemporaryFolder();
+
+	private static File generatedDir;
+	private static ClassLoader generated;
+	private static ClassLoader reflective;
+	private static List<String> notes;
+
+	@BeforeClass
+	public static void compileFixtures() throws Exception {
+		generatedDir = folder.newFolder("generated");
+		File reflectiveDir = folder.newFolder("reflective");
+
+		notes = compile(generatedDir, "-processor", "tornadofx.processor.InjectionProcessor");
+		compile(reflectiveDir, "-proc:none");
+
+		generated = new URLClassLoader(new URL[] { generatedDir.toURI().toURL() }, InjectionProcessorTest.class.getClassLoader());
+		reflective = new URLClassLoader(new URL[] { reflectiveDir.toURI().toURL() }, InjectionProcessorTest.class.getClassLoader());
+	}
+
+	@Test
+	public void injectorIsGeneratedForSupportedComponents() throws Exception {
+		assertNotNull(ComponentMetadata.of(generated.loadClass("fixture.Wired")).injector);
+		assertNotNull(ComponentMetadata.of(generated.loadClass("fixture.Repository")).injector);
+		assertNull(ComponentMetadata.of(reflective.loadClass("fixture.Wired")).injector);
+	}
+
+	@Test
+	public void generatedInjectorWiresLikeReflection() throws Exception {
+		assertEquals(dependencies(reflective), dependencies(generated));
+		assertEquals(wiring(reflective), wiring(generated));
+	}
+
+	@Test
+	public void generatedInjectorSubscribesLikeReflection() throws Exception {
+		assertEquals(1, refreshed(reflective));
+		assertEquals(1, refreshed(generated));
+	}
+
+	@Test
+	public void unsupportedComponentsAreSkipped() throws Exception {
+		for (String name : SKIPPED) {
+			assertFalse(name, new File(generatedDir, "fixture/" + name + ComponentInjector.SUFFIX + ".class").exists());
+			assertTrue(notes.toString(), notes.stream().anyMatch(note -> note.startsWith("No injector generated for fixture." + name + ",")));
+		}
+
+		// Skipped components are still wired by reflection
+		Class<Component> type = (Class<Component>) generated.loadClass("fixture.PrivateField");
+		Component component = InjectionContext.get(type);
+		assertSame(InjectionContext.get((Class<Component>) generated.loadClass("fixture.Service")), field(type, "service").get(component));
+	}
+
+	/**
+	 * The names of all components a lookup of Wired creates, in lookup order
+	 */
+	private static List<String> dependencies(ClassLoader loader) throws Exception {
+		return ComponentMetadata.of(loader.loadClass("fixture.Wired")).getInjectables().stream()
+			.map(Class::getName)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * The type of every injected field of Wired and Repository, after checking it holds the singleton
+	 */
+	private static Map<String, String> wiring(ClassLoader loader) throws Exception {
+		Map<String, String> wiring = new LinkedHashMap<>();
+
+		for (String name : Arrays.asList("fixture.Wired", "fixture.Repository")) {
+			Class<Component> type = (Class<Component>) loader.loadClass(name);
+			Component component = InjectionContext.get(type);
+
+			for (Field field : type.getDeclaredFields()) {
+				if (field.getAnnotation(Inject.class) == null)
+					continue;
+
+				Object value = field(type, field.getName()).get(component);
+				assertSame(InjectionContext.get((Class<Component>) field.getType()), value);
+				wiring.put(type.getSimpleName() + "." + field.getName(), value.getClass().getName());
+			}
+		}
+
+		return wiring;
+	}
+
+	private static int refreshed(ClassLoader loader) throws Exception {
+		Class<Component> type = (Class<Component>) loader.loadClass("fixture.Wired");
+		Component component = InjectionContext.get(type);
+
+		EventBus.publish((FXEvent) loader.loadClass("fixture.Refresh").newInstance());
+
+		return type.getField("refreshed").getInt(component);
+	}
+
+	private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		return field;
+	}
+
+	/**
+	 * Compile the fixtures into the directory and return the notes reported by the compiler
+	 */
+	private static List<String> compile(File directory, String... options) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("Tests must run on a JDK", compiler);
+
+		// Surefire hides the test class path behind a manifest-only jar
+		String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+
+		List<String> arguments = new ArrayList<>(Arrays.asList("-classpath", classPath, "-d", directory.getPath()));
+		arguments.addAll(Arrays.asList(options));
+
+		List<JavaFileObject> sources = new ArrayList<>();
+		for (String[] source : SOURCES)
+			sources.add(source(source[0], "package fixture;\n\nimport tornadofx.*;\n\n" + source[1]));
+
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		boolean compiled = compiler.getTask(null, null, diagnostics, arguments, null, sources).call();
+
+		assertTrue(diagnostics.getDiagnostics().toString(), compiled);
+
+		return diagnostics.getDiagnostics().stream()
+			.filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.NOTE)
+			.map(diagnostic -> diagnostic.getMessage(null))
+			.collect(Collectors.toList());
+	}
+
+	private static JavaFileObject source(String className, String code) {
+		return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+}
@@ -0,0 +1,133 @@
+package tornadofx;
+
+import org.junit.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JacksonJsonCodecTest {
+	private static final String DOCUMENT = "{\"id\":42,\"big\":12345678901234567890,\"price\":9.95,\"name\":\"caf\\u00e9\"," +
+		"\"active\":true,\"deleted\":false,\"parent\":null,\"tags\":[\"a\",\"b\"],\"owner\":{\"id\":1,\"roles\":[]}}";
+
+	private final JsonCodec jackson = JsonCodec.jackson();
+	private final JsonCodec provider = JsonCodec.getDefault();
+
+	@Test
+	public void readsTheSameDocumentAsTheProvider() {
+		JsonStructure expected = provider.read(new StringReader(DOCUMENT));
+		JsonStructure actual = jackson.read(new StringReader(DOCUMENT));
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void equalsAndHashesLikeTheProviderDocument() {
+		JsonStructure expected = provider.read(new StringReader(DOCUMENT));
+		JsonStructure actual = jackson.read(new StringReader(DOCUMENT));
+
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	@Test
+	public void toStringIsTheDocument() {
+		JsonStructure expected = provider.read(new StringReader(DOCUMENT));
+		JsonStructure actual = jackson.read(new StringReader(DOCUMENT));
+
+		assertEquals(expected, provider.read(new StringReader(actual.toString())));
+	}
+
+	@Test
+	public void typedAccessors() {
+		JsonObject json = (JsonObject) jackson.read(new StringReader(DOCUMENT));
+
+		assertEquals("caf\u00e9", json.getString("name"));
+		assertTrue(json.getBoolean("active"));
+		assertFalse(json.getBoolean("deleted", true));
+		assertTrue(json.isNull("parent"));
+		assertEquals(5, json.getInt("missing", 5));
+		assertEquals(9.95, json.getJsonNumber("price").doubleValue(), 0);
+		assertFalse(json.getJsonNumber("price").isIntegral());
+		assertEquals("b", json.getJsonArray("tags").getString(1));
+		assertTrue(json.getJsonObject("owner").getJsonArray("roles").isEmpty());
+	}
+
+	@Test
+	public void keepsNumberPrecision() {
+		JsonObject json = (JsonObject) jackson.read(new StringReader(DOCUMENT));
+
+		assertEquals(42, json.getInt("id"));
+		assertEquals(new BigDecimal("12345678901234567890"), json.getJsonNumber("big").bigDecimalValue());
+		assertEquals(new BigDecimal("9.95"), json.getJsonNumber("price").bigDecimalValue());
+	}
+
+	@Test
+	public void streamsArrayElements() {
+		byte[] input = "[{\"id\":1},{\"id\":2},{\"id\":3}]".getBytes(StandardCharsets.UTF_8);
+		int[] sum = new int[1];
+
+		try (JsonParser parser = jackson.createParser(new ByteArrayInputStream(input))) {
+			JsonStreams.forEachObject(jackson, parser, json -> sum[0] += json.getInt("id"));
+		}
+
+		assertEquals(6, sum[0]);
+	}
+
+	@Test
+	public void emptyInputHasNoEvents() {
+		try (JsonParser parser = jackson.createParser(new ByteArrayInputStream(new byte[0]))) {
+			assertFalse(parser.hasNext());
+		}
+	}
+
+	@Test
+	public void writerOutputReadsBack() {
+		JsonStructure expected = provider.read(new StringReader(DOCUMENT));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (JsonWriter writer = jackson.createWriter(out)) {
+			writer.write(expected);
+		}
+
+		assertEquals(expected, provider.read(new StringReader(new String(out.toByteArray(), StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void generatorClosesObjectsAndArrays() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (JsonGenerator generator = jackson.createGenerator(out)) {
+			generator.writeStartObject()
+				.write("id", 7)
+				.writeStartArray("values")
+				.write(1.5)
+				.writeNull()
+				.writeEnd()
+				.writeStartObject("child")
+				.write("ok", true)
+				.writeEnd()
+				.writeEnd();
+		}
+
+		JsonObject json = (JsonObject) provider.read(new StringReader(new String(out.toByteArray(), StandardCharsets.UTF_8)));
+		JsonArray values = json.getJsonArray("values");
+
+		assertEquals(7, json.getInt("id"));
+		assertEquals(2, values.size());
+		assertTrue(values.isNull(1));
+		assertTrue(json.getJsonObject("child").getBoolean("ok"));
+	}
+}
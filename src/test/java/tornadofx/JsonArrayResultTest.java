@@ -0,0 +1,93 @@
+package tornadofx;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonArrayResultTest {
+	private static final int SIZE = 5000;
+
+	private final int threshold = Rest.getParallelMappingThreshold();
+
+	@After
+	public void cleanup() {
+		Rest.setParallelMappingThreshold(threshold);
+	}
+
+	@Test
+	public void parallelMappingKeepsTheOrder() {
+		Rest.setParallelMappingThreshold(1);
+
+		assertIds(result(SIZE).toModel(Item.class), SIZE);
+	}
+
+	@Test
+	public void parallelMappingReplacesTheListInOneChange() {
+		Rest.setParallelMappingThreshold(1);
+
+		ObservableList<Item> target = FXCollections.observableArrayList();
+		target.setAll(Arrays.asList(new Item(), new Item()));
+
+		List<String> changes = new ArrayList<>();
+		target.addListener((ListChangeListener<Item>) change -> {
+			while (change.next())
+				changes.add(String.format("replaced=%s removed=%d added=%d", change.wasReplaced(), change.getRemovedSize(), change.getAddedSize()));
+		});
+
+		result(SIZE).toModel(Item.class, target);
+
+		assertEquals(Arrays.asList("replaced=true removed=2 added=" + SIZE), changes);
+		assertIds(target, SIZE);
+	}
+
+	@Test
+	public void sequentialAndParallelMappingGiveTheSameModels() {
+		Rest.setParallelMappingThreshold(Integer.MAX_VALUE);
+		List<Item> sequential = result(SIZE).toModel(Item.class);
+
+		Rest.setParallelMappingThreshold(1);
+		List<Item> parallel = result(SIZE).toModel(Item.class);
+
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < SIZE; i++) {
+			assertEquals(sequential.get(i).id, parallel.get(i).id);
+			assertEquals(sequential.get(i).name, parallel.get(i).name);
+		}
+	}
+
+	private static Rest.JsonArrayResult result(int size) {
+		JsonCodec codec = JsonCodec.getDefault();
+		JsonArrayBuilder builder = codec.createArrayBuilder();
+
+		for (int i = 0; i < size; i++)
+			builder.add(codec.createObjectBuilder().add("id", i).add("name", "Item " + i));
+
+		JsonArray data = builder.build();
+		return new Rest.JsonArrayResult(null, data, null);
+	}
+
+	private static void assertIds(List<Item> models, int size) {
+		assertEquals(size, models.size());
+
+		for (int i = 0; i < size; i++) {
+			assertEquals(i, models.get(i).id);
+			assertTrue(models.get(i).name.endsWith(" " + i));
+		}
+	}
+
+	static class Item implements JsonModel {
+		@JsonField int id;
+		@JsonField String name;
+	}
+}
@@ -0,0 +1,112 @@
+package tornadofx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+import javax.json.spi.JsonProvider;
+import javax.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON-P provider codec with the Jackson codec on a typical list response, read as a tree,
+ * streamed one object at a time and written back out.
+ * <p/>
+ * Run with <code>mvn -Pbenchmark test -Djmh.includes=JsonCodecBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+	@Param({ "provider", "jackson" })
+	public String codec;
+
+	@Param({ "10", "1000" })
+	public int size;
+
+	private JsonCodec json;
+	private byte[] input;
+	private JsonStructure document;
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@Setup
+	public void setup() {
+		json = codec.equals("jackson") ? JsonCodec.jackson() : JsonCodec.of(JsonProvider.provider());
+		input = payload(size).getBytes(StandardCharsets.UTF_8);
+		document = read();
+	}
+
+	@Benchmark
+	public JsonStructure read() {
+		return json.read(new InputStreamReader(new ByteArrayInputStream(input), StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public void stream(Blackhole blackhole) {
+		try (JsonParser parser = json.createParser(new ByteArrayInputStream(input))) {
+			JsonStreams.forEachObject(json, parser, blackhole::consume);
+		}
+	}
+
+	@Benchmark
+	public int write() {
+		out.reset();
+
+		try (JsonWriter writer = json.createWriter(out)) {
+			writer.write(document);
+		}
+
+		return out.size();
+	}
+
+	/**
+	 * An array of orders like the ones a list view loads, with ids, text, decimals, dates, flags, nulls and nested lines
+	 */
+	static String payload(int size) {
+		StringBuilder json = new StringBuilder("[");
+
+		for (int i = 0; i < size; i++) {
+			if (i > 0)
+				json.append(',');
+
+			json.append("{\"id\":").append(100000 + i)
+				.append(",\"reference\":\"ORD-").append(i).append("\"")
+				.append(",\"customer\":{\"id\":").append(i % 97).append(",\"name\":\"Customer ").append(i % 97).append("\",\"vip\":").append(i % 7 == 0).append('}')
+				.append(",\"placed\":\"2016-03-").append(String.format("%02d", i % 28 + 1)).append("\"")
+				.append(",\"total\":").append(i % 500).append('.').append(String.format("%02d", i % 100))
+				.append(",\"discount\":").append(i % 3 == 0 ? "0.15" : "null")
+				.append(",\"shipped\":").append(i % 2 == 0)
+				.append(",\"lines\":[");
+
+			for (int l = 0; l < 3; l++) {
+				if (l > 0)
+					json.append(',');
+
+				json.append("{\"product\":\"Product ").append((i + l) % 50).append("\",\"quantity\":").append(l + 1)
+					.append(",\"price\":").append(l * 3 + 1).append(".95}");
+			}
+
+			json.append("]}");
+		}
+
+		return json.append(']').toString();
+	}
+}
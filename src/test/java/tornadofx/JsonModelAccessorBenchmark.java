@@ -0,0 +1,94 @@
+package tornadofx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs updateModel with the typed accessors over the same order list read in three ways: by a plain JsonReader
+ * of the JSON-P provider, where every decimal is a BigDecimal, and by the provider and Jackson codecs, which keep
+ * integral numbers as long and other numbers as text.
+ * <p/>
+ * Run with <code>mvn -Pbenchmark test -Djmh.includes=JsonModelAccessorBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonModelAccessorBenchmark {
+	@Param({ "reader", "provider", "jackson" })
+	public String source;
+
+	private List<JsonObject> orders;
+
+	@Setup
+	public void setup() {
+		String text = JsonCodecBenchmark.payload(1000);
+		JsonArray data;
+
+		if (source.equals("reader")) {
+			try (JsonReader reader = Json.createReader(new StringReader(text))) {
+				data = reader.readArray();
+			}
+		} else {
+			JsonCodec codec = source.equals("jackson") ? JsonCodec.jackson() : JsonCodec.getDefault();
+			data = (JsonArray) codec.read(new StringReader(text));
+		}
+
+		orders = data.getValuesAs(JsonObject.class);
+	}
+
+	@Benchmark
+	public void updateModel(Blackhole blackhole) {
+		for (JsonObject json : orders) {
+			Order order = new Order();
+			order.updateModel(json);
+			blackhole.consume(order);
+		}
+	}
+
+	public static class Order implements JsonModel {
+		long id;
+		String reference;
+		LocalDate placed;
+		double total;
+		double discount;
+		boolean shipped;
+		double lineTotal;
+
+		public void updateModel(JsonObject json) {
+			id = getLong(json, "id", 0);
+			reference = getString(json, "reference", null);
+			placed = getLocalDate(json, "placed", null);
+			total = getDouble(json, "total", 0);
+			discount = getDouble(json, "discount", 0);
+			shipped = getBoolean(json, "shipped", false);
+
+			JsonArray lines = json.getJsonArray("lines");
+			for (int i = 0; i < lines.size(); i++) {
+				JsonObject line = lines.getJsonObject(i);
+				lineTotal += getInt(line, "quantity", 0) * getDouble(line, "price", 0);
+			}
+		}
+	}
+}
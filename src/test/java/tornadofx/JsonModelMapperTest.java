@@ -0,0 +1,127 @@
+package tornadofx;
+
+import org.junit.Test;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonModelMapperTest {
+
+	@Test
+	public void writeJSONMatchesToJSON() {
+		Order order = new Order();
+		order.id = 7;
+		order.reference = "A-7";
+		order.total = new BigDecimal("19.90");
+		order.placed = LocalDate.of(2016, 3, 1);
+		order.customer = new Customer();
+		order.customer.name = "Ann";
+		order.lines = new ArrayList<>(Arrays.asList(new Line("tea", 2), null, new Line("cake", 1)));
+		order.notes = new Note("ring twice");
+
+		assertTrue(JsonModelMapper.of(Order.class).canWriteFields());
+		assertEquals(JsonModelTracker.snapshot(order), written(order));
+	}
+
+	@Test
+	public void nullFieldsAreLeftOut() {
+		Order order = new Order();
+		order.id = 1;
+
+		JsonObject json = written(order);
+		assertEquals(1, json.getInt("id"));
+		assertFalse(json.containsKey("reference"));
+		assertFalse(json.containsKey("customer"));
+	}
+
+	@Test
+	public void overriddenToJSONIsNotWrittenFieldByField() {
+		assertFalse(JsonModelMapper.of(Note.class).canWriteFields());
+	}
+
+	@Test
+	public void unknownEnumConstantIsReadAsNull() {
+		Shipment shipment = new Shipment();
+		shipment.updateModel((JsonObject) JsonCodec.getDefault().read(new StringReader("{\"status\":\"LOST\",\"previous\":\"SHIPPED\"}")));
+
+		assertNull(shipment.status);
+		assertEquals(Status.SHIPPED, shipment.previous);
+	}
+
+	private static JsonObject written(JsonModel model) {
+		JsonCodec codec = JsonCodec.getDefault();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (JsonGenerator generator = codec.createGenerator(out)) {
+			model.writeJSON(generator);
+		}
+
+		return (JsonObject) codec.read(new StringReader(new String(out.toByteArray(), StandardCharsets.UTF_8)));
+	}
+
+	static class Order implements JsonModel {
+		@JsonField int id;
+		@JsonField String reference;
+		@JsonField BigDecimal total;
+		@JsonField LocalDate placed;
+		@JsonField Customer customer;
+		@JsonField List<Line> lines;
+		@JsonField Note notes;
+	}
+
+	static class Customer implements JsonModel {
+		@JsonField String name;
+	}
+
+	static class Line implements JsonModel {
+		@JsonField("product") String name;
+		@JsonField int quantity;
+
+		Line() {
+		}
+
+		Line(String name, int quantity) {
+			this.name = name;
+			this.quantity = quantity;
+		}
+	}
+
+	enum Status { OPEN, SHIPPED }
+
+	static class Shipment implements JsonModel {
+		@JsonField Status status;
+		@JsonField Status previous;
+	}
+
+	/**
+	 * Written by hand, so it is nested with toJSON instead of field by field
+	 */
+	static class Note implements JsonModel {
+		@JsonField String text;
+
+		Note() {
+		}
+
+		Note(String text) {
+			this.text = text;
+		}
+
+		public void toJSON(JsonObjectBuilder builder) {
+			builder.add("text", text.toUpperCase());
+		}
+	}
+}
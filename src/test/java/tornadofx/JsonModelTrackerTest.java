@@ -0,0 +1,87 @@
+package tornadofx;
+
+import org.junit.Test;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonModelTrackerTest {
+
+	@Test
+	public void cleanModelHasNoChanges() {
+		Person person = new Person("Ann", "ann@example.com");
+		person.markClean();
+
+		assertFalse(person.isDirty());
+		assertTrue(person.getChanges().isEmpty());
+	}
+
+	@Test
+	public void changedPropertyIsReturned() {
+		Person person = new Person("Ann", "ann@example.com");
+		person.markClean();
+
+		person.email = "ann@example.org";
+
+		JsonObject changes = person.getChanges();
+		assertEquals(1, changes.size());
+		assertEquals("ann@example.org", changes.getString("email"));
+	}
+
+	@Test
+	public void clearedPropertyIsReturnedAsNull() {
+		Person person = new Person("Ann", "ann@example.com");
+		person.markClean();
+
+		person.email = null;
+
+		JsonObject changes = person.getChanges();
+		assertEquals(1, changes.size());
+		assertEquals(JsonValue.NULL, changes.get("email"));
+	}
+
+	@Test
+	public void committedClearIsNotReturnedAgain() {
+		Person person = new Person("Ann", "ann@example.com");
+		person.markClean();
+
+		person.email = null;
+		JsonModelTracker.commit(person, person.getChanges());
+
+		assertFalse(person.isDirty());
+	}
+
+	@Test
+	public void modelWithoutBaselineReturnsAllProperties() {
+		Person person = new Person("Ann", "ann@example.com");
+
+		assertEquals(2, person.getChanges().size());
+	}
+
+	static class Person implements JsonModel {
+		String name;
+		String email;
+
+		Person(String name, String email) {
+			this.name = name;
+			this.email = email;
+		}
+
+		public void updateModel(JsonObject json) {
+			name = json.getString("name", null);
+			email = json.getString("email", null);
+		}
+
+		public void toJSON(JsonObjectBuilder builder) {
+			if (name != null)
+				builder.add("name", name);
+			if (email != null)
+				builder.add("email", email);
+		}
+	}
+}
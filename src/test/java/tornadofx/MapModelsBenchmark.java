@@ -0,0 +1,87 @@
+package tornadofx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.JsonArray;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps order lists of growing size to models sequentially and in parallel. The size where the parallel
+ * path starts to win is what {@link Rest#setParallelMappingThreshold(int)} should be set to for models
+ * like these. Heavier updateModel implementations break even at smaller sizes.
+ * <p/>
+ * Run with <code>mvn -Pbenchmark test -Djmh.includes=MapModelsBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapModelsBenchmark {
+	@Param({ "256", "1024", "2048", "4096", "16384" })
+	public int size;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private Rest.JsonArrayResult result;
+	private int threshold;
+
+	@Setup
+	public void setup() {
+		JsonArray data = (JsonArray) JsonCodec.getDefault().read(new StringReader(JsonCodecBenchmark.payload(size)));
+		result = new Rest.JsonArrayResult(null, data, null);
+
+		threshold = Rest.getParallelMappingThreshold();
+		Rest.setParallelMappingThreshold(parallel ? 1 : Integer.MAX_VALUE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Rest.setParallelMappingThreshold(threshold);
+	}
+
+	@Benchmark
+	public List<Order> map() {
+		return result.toModel(Order.class);
+	}
+
+	public static class Order implements JsonModel {
+		@JsonField long id;
+		@JsonField String reference;
+		@JsonField Customer customer;
+		@JsonField LocalDate placed;
+		@JsonField BigDecimal total;
+		@JsonField BigDecimal discount;
+		@JsonField boolean shipped;
+		@JsonField List<Line> lines;
+	}
+
+	public static class Customer implements JsonModel {
+		@JsonField long id;
+		@JsonField String name;
+		@JsonField boolean vip;
+	}
+
+	public static class Line implements JsonModel {
+		@JsonField String product;
+		@JsonField int quantity;
+		@JsonField BigDecimal price;
+	}
+}
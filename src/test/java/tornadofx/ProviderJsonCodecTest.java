@@ -0,0 +1,52 @@
+package tornadofx;
+
+import org.junit.Test;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import javax.json.spi.JsonProvider;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProviderJsonCodecTest {
+	private static final String DOCUMENT = "{\"id\":42,\"big\":12345678901234567890,\"price\":9.95,\"exp\":1.5e3," +
+		"\"name\":\"tea\",\"tags\":[1,2.5,null],\"owner\":{\"id\":1}}";
+
+	private final JsonCodec codec = JsonCodec.of(JsonProvider.provider());
+
+	@Test
+	public void readsTheSameDocumentAsAJsonReader() {
+		JsonStructure expected;
+		try (JsonReader reader = Json.createReader(new StringReader(DOCUMENT))) {
+			expected = reader.read();
+		}
+
+		JsonStructure actual = codec.read(new StringReader(DOCUMENT));
+
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	@Test
+	public void numbersKeepTheirValue() {
+		JsonObject json = (JsonObject) codec.read(new StringReader(DOCUMENT));
+
+		assertEquals(42L, json.getJsonNumber("id").longValue());
+		assertEquals(new BigDecimal("12345678901234567890"), json.getJsonNumber("big").bigDecimalValue());
+		assertEquals(9.95, json.getJsonNumber("price").doubleValue(), 0);
+		assertEquals(1500.0, json.getJsonNumber("exp").doubleValue(), 0);
+		assertEquals(new BigDecimal("1.5e3"), json.getJsonNumber("exp").bigDecimalValue());
+		assertEquals(2.5, json.getJsonArray("tags").getJsonNumber(1).doubleValue(), 0);
+	}
+
+	@Test(expected = JsonException.class)
+	public void emptyInputFails() {
+		codec.read(new StringReader(""));
+	}
+}
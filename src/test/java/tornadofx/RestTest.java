@@ -0,0 +1,345 @@
+package tornadofx;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import javafx.collections.FXCollections;
+import org.apache.http.client.HttpResponseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs calls against a local HTTP server. The FX toolkit is not started, so the bookkeeping Rest does on the
+ * FX thread runs in the calling threads instead.
+ */
+public class RestTest {
+	private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+	private final JsonCodec codec = JsonCodec.getDefault();
+
+	private HttpServer server;
+	private Rest rest;
+
+	@Before
+	public void start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(serverThreads);
+		server.start();
+
+		rest = new Rest();
+		rest.setBaseURI(String.format("http://localhost:%d/", server.getAddress().getPort()));
+	}
+
+	@After
+	public void stop() {
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Test(timeout = 30000)
+	public void modelIsSerializedWhenItIsPassed() {
+		AtomicReference<String> sent = new AtomicReference<>();
+		AtomicReference<String> contentLength = new AtomicReference<>();
+
+		server.createContext("/item", exchange -> {
+			contentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+			sent.set(read(exchange.getRequestBody(), null));
+			respond(exchange, 200, "{}");
+		});
+
+		Item item = new Item(1);
+		Rest.JsonCall call = rest.post("item").data(item);
+		item.name = "Changed";
+
+		assertTrue(call.execute().ok());
+
+		JsonObject json = (JsonObject) codec.read(new StringReader(sent.get()));
+		assertEquals("Item 1", json.getString("name"));
+		assertEquals(String.valueOf(sent.get().getBytes(StandardCharsets.UTF_8).length), contentLength.get());
+	}
+
+	@Test(timeout = 30000)
+	public void streamedModelsAreSentWhileTheyAreWritten() {
+		int count = 5000;
+		AtomicLong received = new AtomicLong();
+		AtomicReference<String> sent = new AtomicReference<>();
+		AtomicReference<String> transferEncoding = new AtomicReference<>();
+
+		server.createContext("/items", exchange -> {
+			transferEncoding.set(exchange.getRequestHeaders().getFirst("Transfer-Encoding"));
+			sent.set(read(exchange.getRequestBody(), received));
+			respond(exchange, 200, "{}");
+		});
+
+		// Before the last model is written, the server must already have received part of the body
+		long[] receivedBeforeLast = { -1 };
+		List<Item> items = new AbstractList<Item>() {
+			public Item get(int index) {
+				if (index == count - 1)
+					receivedBeforeLast[0] = awaitAny(received);
+
+				return new Item(index);
+			}
+
+			public int size() {
+				return count;
+			}
+		};
+
+		assertTrue(rest.post("items").streamData(items).execute().ok());
+
+		assertEquals("chunked", transferEncoding.get());
+		assertTrue(receivedBeforeLast[0] > 0);
+		assertEquals(count, ((JsonArray) codec.read(new StringReader(sent.get()))).size());
+	}
+
+	@Test(timeout = 30000)
+	public void streamReturnsErrorStatusWithoutParsing() {
+		server.createContext("/items", exchange -> respond(exchange, 500, "Internal error"));
+
+		List<Item> items = new ArrayList<>();
+		Rest.JsonEmptyResult result = rest.get("items").stream(Item.class, items::add);
+
+		assertEquals(500, result.getStatusCode());
+		assertTrue(String.valueOf(result.getError()), result.getError() instanceof HttpResponseException);
+		assertTrue(items.isEmpty());
+	}
+
+	@Test(timeout = 30000)
+	public void streamIsRetriedUntilTheFirstElement() {
+		AtomicInteger attempts = new AtomicInteger();
+
+		server.createContext("/items", exchange -> {
+			if (attempts.incrementAndGet() == 1)
+				respond(exchange, 503, "Unavailable");
+			else
+				respond(exchange, 200, "[{\"id\":1,\"name\":\"One\"},{\"id\":2,\"name\":\"Two\"}]");
+		});
+
+		RetryPolicy policy = new RetryPolicy();
+		policy.setInitialDelay(1);
+		rest.setRetryPolicy(policy);
+
+		List<Item> items = new ArrayList<>();
+		Rest.JsonEmptyResult result = rest.get("items").stream(Item.class, items::add);
+
+		assertTrue(result.ok());
+		assertEquals(2, attempts.get());
+		assertEquals(2, items.size());
+		assertEquals("Two", items.get(1).name);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void streamRejectsEmptyChunks() {
+		rest.get("items").stream(Item.class, FXCollections.observableArrayList(), 0);
+	}
+
+	@Test(timeout = 30000)
+	public void concurrentIdenticalCallsShareOneRequest() throws Exception {
+		int callers = 4;
+		AtomicInteger requests = new AtomicInteger();
+
+		// The response is held back until every other caller waits for it
+		server.createContext("/items", exchange -> {
+			requests.incrementAndGet();
+			await(() -> rest.getDeduplicatedCallCount() >= callers - 1);
+			respond(exchange, 200, "[{\"id\":1,\"name\":\"One\"}]");
+		});
+
+		rest.setDeduplicate(true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Rest.JsonArrayResult>> calls = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < callers; i++) {
+				calls.add(executor.submit(() -> {
+					start.await();
+					return rest.get("items").list();
+				}));
+			}
+
+			start.countDown();
+
+			Set<Rest.JsonArrayResult> results = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Future<Rest.JsonArrayResult> call : calls) {
+				Rest.JsonArrayResult result = call.get(30, TimeUnit.SECONDS);
+				assertTrue(result.ok());
+				assertEquals(1, result.getData().size());
+				results.add(result);
+			}
+
+			assertEquals(1, requests.get());
+			assertEquals(callers - 1, rest.getDeduplicatedCallCount());
+			assertEquals(callers, results.size());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void batchKeepsCallOrderWithBoundedParallelism() {
+		int count = 6;
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		// Later calls answer sooner, so the results complete out of order
+		server.createContext("/items/", exchange -> {
+			int id = Integer.parseInt(exchange.getRequestURI().getPath().substring("/items/".length()));
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			pause((count - id) * 20);
+			running.decrementAndGet();
+			respond(exchange, 200, "{\"id\":" + id + "}");
+		});
+
+		List<Rest.JsonCall> calls = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			calls.add(rest.get("items/" + i));
+
+		List<Rest.JsonObjectResult> results = rest.batch().parallelism(2).add(calls).one();
+
+		assertEquals(count, results.size());
+		for (int i = 0; i < count; i++) {
+			assertTrue(results.get(i).ok());
+			assertEquals(i, results.get(i).getData().getInt("id"));
+		}
+
+		assertTrue(String.valueOf(maxRunning.get()), maxRunning.get() <= 2);
+	}
+
+	@Test(timeout = 30000)
+	public void combinedBatchAcceptsAnySuccessStatus() {
+		AtomicInteger requests = new AtomicInteger();
+
+		server.createContext("/bulk", exchange -> {
+			requests.incrementAndGet();
+			respond(exchange, 207, "[{\"id\":0},{\"id\":1},{\"id\":2}]");
+		});
+
+		List<Rest.JsonObjectResult> results = rest.batch(rest.get("items/0"), rest.get("items/1"), rest.get("items/2"))
+			.combine(calls -> rest.get("bulk"))
+			.one();
+
+		assertEquals(1, requests.get());
+		assertEquals(3, results.size());
+
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(207, results.get(i).getStatusCode());
+			assertFalse(String.valueOf(results.get(i).getError()), results.get(i).hasError());
+			assertEquals(i, results.get(i).getData().getInt("id"));
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void combinedBatchFailsEveryCallOnErrorStatus() {
+		server.createContext("/bulk", exchange -> respond(exchange, 500, "Internal error"));
+
+		List<Rest.JsonObjectResult> results = rest.batch(rest.get("items/0"), rest.get("items/1"))
+			.combine(calls -> rest.get("bulk"))
+			.one();
+
+		assertEquals(2, results.size());
+
+		for (Rest.JsonObjectResult result : results) {
+			assertEquals(500, result.getStatusCode());
+			assertTrue(String.valueOf(result.getError()), result.getError() instanceof HttpResponseException);
+		}
+	}
+
+	private static void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Wait up to five seconds for the counter to become positive
+	 */
+	private static long awaitAny(AtomicLong counter) {
+		await(() -> counter.get() > 0);
+		return counter.get();
+	}
+
+	/**
+	 * Wait up to five seconds for the condition to become true
+	 */
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5000;
+
+		try {
+			while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String read(InputStream in, AtomicLong received) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+
+		for (int n; (n = in.read(buffer)) > 0; ) {
+			body.write(buffer, 0, n);
+
+			if (received != null)
+				received.addAndGet(n);
+		}
+
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	static class Item implements JsonModel {
+		@JsonField int id;
+		@JsonField String name;
+
+		Item() {
+		}
+
+		Item(int id) {
+			this.id = id;
+			this.name = "Item " + id;
+		}
+	}
+}